@@ -0,0 +1,28 @@
+package io.github.Piotr7421.courses.benchmark;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import io.github.Piotr7421.courses.CoursesApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=test",
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.jpa.show-sql=false",
+                "--spring.devtools.restart.enabled=false",
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return SpringApplication.run(CoursesApplication.class, args.toArray(String[]::new));
+    }
+}
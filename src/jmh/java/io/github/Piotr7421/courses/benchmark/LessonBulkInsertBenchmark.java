@@ -0,0 +1,127 @@
+package io.github.Piotr7421.courses.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.model.Lesson;
+import io.github.Piotr7421.courses.model.Student;
+import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.repository.LessonRepository;
+import io.github.Piotr7421.courses.repository.StudentRepository;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// batching only saves network round trips: on the default in-memory H2 both variants score the same,
+// so the numbers mean something only with spring.datasource.* pointed at MySQL (see README)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LessonBulkInsertBenchmark {
+
+    private static final int ROWS = 500;
+
+    @Param({"1", "50"})
+    private int jdbcBatchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+    private LessonRepository lessonRepository;
+    private Teacher teacher;
+    private Student student;
+    private LocalDateTime start;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        lessonRepository = context.getBean(LessonRepository.class);
+        teacher = context.getBean(TeacherRepository.class).save(Teacher.builder()
+                .firstName("Anna")
+                .lastName("Nowak")
+                .languages(Set.of(Language.JAVA))
+                .active(true)
+                .build());
+        student = context.getBean(StudentRepository.class).save(Student.builder()
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .language(Language.JAVA)
+                .teacher(teacher)
+                .active(true)
+                .build());
+        start = LocalDateTime.now().plusYears(1);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearLessons() {
+        jdbcTemplate.update("DELETE FROM lesson");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void identityRowByRow() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ROWS; i++) {
+                Timestamp date = Timestamp.valueOf(start.plusHours(i));
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "INSERT INTO lesson (date, teacher_id, student_id, version) VALUES (?, ?, ?, 0)",
+                            Statement.RETURN_GENERATED_KEYS);
+                    statement.setTimestamp(1, date);
+                    statement.setInt(2, teacher.getId());
+                    statement.setInt(3, student.getId());
+                    return statement;
+                }, new GeneratedKeyHolder());
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void pooledSaveAll() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Lesson> lessons = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                lessons.add(Lesson.builder()
+                        .date(start.plusHours(i))
+                        .teacher(teacher)
+                        .student(student)
+                        .build());
+            }
+            lessonRepository.saveAll(lessons);
+        });
+    }
+}
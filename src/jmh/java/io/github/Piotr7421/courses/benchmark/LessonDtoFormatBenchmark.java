@@ -0,0 +1,99 @@
+package io.github.Piotr7421.courses.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import io.github.Piotr7421.courses.config.BinaryFormatConfig;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LessonDtoFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectWriter lessonWriter;
+    private ObjectWriter lessonListWriter;
+    private ObjectReader commandReader;
+    private LessonDto lesson;
+    private List<LessonDto> lessons;
+    private byte[] command;
+
+    // reported next to the timings so the size/CPU trade-off of each format shows up in one run
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long payloadBytes;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = switch (format) {
+            case "cbor" -> BinaryFormatConfig.binaryMapper(Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()));
+            case "smile" -> BinaryFormatConfig.binaryMapper(Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()));
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        lessonWriter = objectMapper.writerFor(LessonDto.class);
+        lessonListWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, LessonDto.class));
+        commandReader = objectMapper.readerFor(CreateLessonCommand.class);
+        LocalDateTime date = LocalDateTime.of(2030, 1, 15, 10, 30);
+        lesson = new LessonDto(1, date, 2, 3);
+        lessons = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lessons.add(new LessonDto(i, date.plusHours(i), 2, 3));
+        }
+        command = objectMapper.writeValueAsBytes(CreateLessonCommand.builder()
+                .date(date)
+                .teacherId(2)
+                .studentId(3)
+                .build());
+    }
+
+    @Benchmark
+    public byte[] serializeLesson(PayloadSize payloadSize) throws IOException {
+        byte[] payload = lessonWriter.writeValueAsBytes(lesson);
+        payloadSize.payloadBytes = payload.length;
+        return payload;
+    }
+
+    @Benchmark
+    public byte[] serializeHundredLessons(PayloadSize payloadSize) throws IOException {
+        byte[] payload = lessonListWriter.writeValueAsBytes(lessons);
+        payloadSize.payloadBytes = payload.length;
+        return payload;
+    }
+
+    @Benchmark
+    public CreateLessonCommand deserializeCreateLessonCommand() throws IOException {
+        return commandReader.readValue(command);
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.Piotr7421.courses.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LessonDtoJsonBenchmark {
+
+    private ObjectWriter lessonWriter;
+    private ObjectWriter lessonListWriter;
+    private ObjectReader commandReader;
+    private LessonDto lesson;
+    private List<LessonDto> lessons;
+    private byte[] commandJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        lessonWriter = objectMapper.writerFor(LessonDto.class);
+        lessonListWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, LessonDto.class));
+        commandReader = objectMapper.readerFor(CreateLessonCommand.class);
+        LocalDateTime date = LocalDateTime.of(2030, 1, 15, 10, 30);
+        lesson = new LessonDto(1, date, 2, 3);
+        lessons = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            lessons.add(new LessonDto(i, date.plusHours(i), 2, 3));
+        }
+        commandJson = objectMapper.writeValueAsBytes(CreateLessonCommand.builder()
+                .date(date)
+                .teacherId(2)
+                .studentId(3)
+                .build());
+    }
+
+    @Benchmark
+    public byte[] serializeLesson() throws IOException {
+        return lessonWriter.writeValueAsBytes(lesson);
+    }
+
+    @Benchmark
+    public byte[] serializeHundredLessons() throws IOException {
+        return lessonListWriter.writeValueAsBytes(lessons);
+    }
+
+    @Benchmark
+    public CreateLessonCommand deserializeCreateLessonCommand() throws IOException {
+        return commandReader.readValue(commandJson);
+    }
+}
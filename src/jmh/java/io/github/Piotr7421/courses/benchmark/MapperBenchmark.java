@@ -0,0 +1,90 @@
+package io.github.Piotr7421.courses.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.mapper.LessonMapper;
+import io.github.Piotr7421.courses.mapper.StudentMapper;
+import io.github.Piotr7421.courses.mapper.TeacherMapper;
+import io.github.Piotr7421.courses.model.Lesson;
+import io.github.Piotr7421.courses.model.Student;
+import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.model.dto.StudentDto;
+import io.github.Piotr7421.courses.model.dto.TeacherDto;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Teacher teacher;
+    private Student student;
+    private Lesson lesson;
+    private CreateLessonCommand createLessonCommand;
+
+    @Setup
+    public void setUp() {
+        teacher = Teacher.builder()
+                .id(1)
+                .firstName("Anna")
+                .lastName("Nowak")
+                .languages(Set.of(Language.JAVA, Language.PYTHON, Language.C))
+                .build();
+        student = Student.builder()
+                .id(2)
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .language(Language.JAVA)
+                .teacher(teacher)
+                .build();
+        LocalDateTime date = LocalDateTime.of(2030, 1, 15, 10, 30);
+        lesson = Lesson.builder()
+                .id(3)
+                .date(date)
+                .teacher(teacher)
+                .student(student)
+                .build();
+        createLessonCommand = CreateLessonCommand.builder()
+                .date(date)
+                .teacherId(1)
+                .studentId(2)
+                .build();
+    }
+
+    @Benchmark
+    public LessonDto lessonToDto() {
+        return LessonMapper.mapToDto(lesson);
+    }
+
+    @Benchmark
+    public Lesson lessonFromCommand() {
+        return LessonMapper.mapFromCommand(createLessonCommand);
+    }
+
+    @Benchmark
+    public StudentDto studentToDto() {
+        return StudentMapper.mapToDto(student);
+    }
+
+    @Benchmark
+    public TeacherDto teacherToDto() {
+        return TeacherMapper.mapToDto(teacher);
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.Piotr7421.courses.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.command.CreateStudentCommand;
+import io.github.Piotr7421.courses.model.command.CreateTeacherCommand;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.model.dto.PageDto;
+import io.github.Piotr7421.courses.model.dto.StudentDto;
+import io.github.Piotr7421.courses.model.dto.TeacherDto;
+import io.github.Piotr7421.courses.service.LessonService;
+import io.github.Piotr7421.courses.service.StudentService;
+import io.github.Piotr7421.courses.service.TeacherService;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int LESSONS = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private TeacherService teacherService;
+    private StudentService studentService;
+    private LessonService lessonService;
+    private TeacherDto teacher;
+    private StudentDto student;
+    private LessonDto lesson;
+    private LocalDateTime nextBooking;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        teacherService = context.getBean(TeacherService.class);
+        studentService = context.getBean(StudentService.class);
+        lessonService = context.getBean(LessonService.class);
+        teacher = teacherService.create(CreateTeacherCommand.builder()
+                .firstName("Anna")
+                .lastName("Nowak")
+                .languages(Set.of(Language.JAVA, Language.PYTHON))
+                .build());
+        student = studentService.create(CreateStudentCommand.builder()
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .language(Language.JAVA)
+                .teacherId(teacher.getId())
+                .build());
+        nextBooking = LocalDateTime.now().plusDays(1).withMinute(0).withSecond(0).withNano(0);
+        for (int i = 0; i < LESSONS; i++) {
+            lesson = book();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TeacherDto teacherFindById() {
+        return teacherService.findById(teacher.getId());
+    }
+
+    @Benchmark
+    public StudentDto studentFindById() {
+        return studentService.findById(student.getId());
+    }
+
+    @Benchmark
+    public LessonDto lessonFindById() {
+        return lessonService.findById(lesson.getId());
+    }
+
+    @Benchmark
+    public PageDto<LessonDto> lessonFindFirstPage() {
+        return lessonService.findPage(100, null);
+    }
+
+    @Benchmark
+    public LessonDto lessonSave() {
+        return book();
+    }
+
+    private LessonDto book() {
+        LocalDateTime date = nextBooking;
+        nextBooking = nextBooking.plusHours(1);
+        return lessonService.save(CreateLessonCommand.builder()
+                .date(date)
+                .teacherId(teacher.getId())
+                .studentId(student.getId())
+                .build());
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.Piotr7421.courses.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.repository.StudentRepository;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.validator.TeacherLanguageValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TeacherLanguageCheckBenchmark {
+
+    private static final int FIRST_STUDENT_ID = 1_000_000;
+
+    @Param({"100", "10000"})
+    private int students;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private StudentRepository studentRepository;
+    private TeacherLanguageValidator validator;
+    private Teacher teacher;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        studentRepository = context.getBean(StudentRepository.class);
+        validator = context.getBean(TeacherLanguageValidator.class);
+        teacher = context.getBean(TeacherRepository.class).save(Teacher.builder()
+                .firstName("Anna")
+                .lastName("Nowak")
+                .languages(Set.of(Language.JAVA, Language.PYTHON, Language.JS))
+                .active(true)
+                .build());
+        List<Object[]> rows = new ArrayList<>(students);
+        for (int i = 0; i < students; i++) {
+            Language language = i % 2 == 0 ? Language.JAVA : Language.PYTHON;
+            rows.add(new Object[]{FIRST_STUDENT_ID + i, "Jan", "Kowalski", language.name(), teacher.getId()});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO student (id, first_name, last_name, language, teacher_id, active, version) VALUES (?, ?, ?, ?, ?, true, 0)",
+                rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void loadAllStudents(Blackhole blackhole) {
+        transactionTemplate.executeWithoutResult(status -> studentRepository.findAllByTeacherId(teacher.getId())
+                .forEach(student -> {
+                    validator.validateTeacherLanguage(teacher, student);
+                    blackhole.consume(student);
+                }));
+    }
+
+    @Benchmark
+    public void aggregateQuery() {
+        transactionTemplate.executeWithoutResult(status -> validator.validateTeacherLanguages(teacher));
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.Piotr7421.courses.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.exception.IncompatibleTeacherLanguageException;
+import io.github.Piotr7421.courses.model.Student;
+import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.validator.TeacherLanguageValidator;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TeacherLanguageValidatorBenchmark {
+
+    private TeacherLanguageValidator validator;
+    private Teacher teacher;
+    private Student compatibleStudent;
+    private Student incompatibleStudent;
+
+    @Setup
+    public void setUp() {
+        validator = new TeacherLanguageValidator(null);
+        teacher = Teacher.builder()
+                .id(1)
+                .languages(Set.of(Language.JAVA, Language.PYTHON, Language.JS))
+                .build();
+        compatibleStudent = Student.builder()
+                .id(1)
+                .language(Language.JS)
+                .build();
+        incompatibleStudent = Student.builder()
+                .id(2)
+                .language(Language.COBOL)
+                .build();
+    }
+
+    @Benchmark
+    public void compatibleLanguage() {
+        validator.validateTeacherLanguage(teacher, compatibleStudent);
+    }
+
+    @Benchmark
+    public void incompatibleLanguage(Blackhole blackhole) {
+        try {
+            validator.validateTeacherLanguage(teacher, incompatibleStudent);
+        } catch (IncompatibleTeacherLanguageException e) {
+            blackhole.consume(e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.Piotr7421.courses.common;
+
+import io.github.Piotr7421.courses.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record Cursor(LocalDateTime date, int id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static Cursor of(int id) {
+        return new Cursor(null, id);
+    }
+
+    public static Cursor of(LocalDateTime date, int id) {
+        return new Cursor(date, id);
+    }
+
+    public String encode() {
+        String raw = date == null ? String.valueOf(id) : date + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String value) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return of(Integer.parseInt(raw));
+            }
+            return of(LocalDateTime.parse(raw.substring(0, separator)), Integer.parseInt(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Invalid page cursor");
+        }
+    }
+}
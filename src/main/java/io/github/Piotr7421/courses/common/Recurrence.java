@@ -0,0 +1,5 @@
+package io.github.Piotr7421.courses.common;
+
+public enum Recurrence {
+    DAILY, WEEKLY
+}
@@ -0,0 +1,66 @@
+package io.github.Piotr7421.courses.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder.factory(new CBORFactory())));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder.factory(new SmileFactory())));
+    }
+
+    public static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder) {
+        // registered last so it wins over the dd-MM-yyyy HH:mm @JsonFormat patterns used by JSON
+        return builder.build().registerModule(new SimpleModule("epoch-minutes")
+                .addSerializer(LocalDateTime.class, new EpochMinutesSerializer())
+                .addDeserializer(LocalDateTime.class, new EpochMinutesDeserializer()));
+    }
+
+    static class EpochMinutesSerializer extends StdSerializer<LocalDateTime> {
+
+        EpochMinutesSerializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(Math.floorDiv(value.toEpochSecond(ZoneOffset.UTC), 60));
+        }
+    }
+
+    static class EpochMinutesDeserializer extends StdDeserializer<LocalDateTime> {
+
+        EpochMinutesDeserializer() {
+            super(LocalDateTime.class);
+        }
+
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return LocalDateTime.ofEpochSecond(parser.getLongValue() * 60, 0, ZoneOffset.UTC);
+        }
+    }
+}
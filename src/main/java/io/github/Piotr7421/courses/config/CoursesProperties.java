@@ -0,0 +1,109 @@
+package io.github.Piotr7421.courses.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "courses")
+public class CoursesProperties {
+
+    private LessonIndex lessonIndex = new LessonIndex();
+    private LessonSlot lessonSlot = new LessonSlot();
+    private TeacherIndex teacherIndex = new TeacherIndex();
+    private TeacherMailbox teacherMailbox = new TeacherMailbox();
+    private GroupCommit groupCommit = new GroupCommit();
+    private Idempotency idempotency = new Idempotency();
+    private ReadReplica readReplica = new ReadReplica();
+    private SingleFlight singleFlight = new SingleFlight();
+    private Export export = new Export();
+
+    @Getter
+    @Setter
+    public static class LessonIndex {
+
+        private boolean enabled = true;
+        private boolean verifyOnCommit = true;
+    }
+
+    @Getter
+    @Setter
+    public static class LessonSlot {
+
+        private boolean lockFree = false;
+    }
+
+    @Getter
+    @Setter
+    public static class TeacherIndex {
+
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class TeacherMailbox {
+
+        private boolean enabled = false;
+        private int stripes = 16;
+        private int capacity = 256;
+    }
+
+    @Getter
+    @Setter
+    public static class GroupCommit {
+
+        private boolean enabled = false;
+        private Duration window = Duration.ofMillis(2);
+        private int maxItems = 64;
+    }
+
+    @Getter
+    @Setter
+    public static class Idempotency {
+
+        private Duration ttl = Duration.ofHours(24);
+        private int cacheSize = 10000;
+        private Duration purgeInterval = Duration.ofHours(1);
+        private int purgeBatchSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class ReadReplica {
+
+        private boolean enabled = false;
+        private List<Replica> datasources = new ArrayList<>();
+        private Duration primaryAfterWrite = Duration.ofSeconds(5);
+
+        @Getter
+        @Setter
+        public static class Replica {
+
+            private String url;
+            private String username;
+            private String password;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class SingleFlight {
+
+        private Set<String> entities = new HashSet<>(Set.of("teacher", "lesson"));
+    }
+
+    @Getter
+    @Setter
+    public static class Export {
+
+        private Duration timeout = Duration.ofMinutes(30);
+    }
+}
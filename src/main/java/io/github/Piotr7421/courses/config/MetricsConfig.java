@@ -0,0 +1,21 @@
+package io.github.Piotr7421.courses.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.Repository;
+
+import java.util.function.Predicate;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        // repository methods are already timed by Spring Data's repository metrics
+        Predicate<ProceedingJoinPoint> isRepository = joinPoint -> joinPoint.getTarget() instanceof Repository<?, ?>;
+        return new TimedAspect(meterRegistry, isRepository);
+    }
+}
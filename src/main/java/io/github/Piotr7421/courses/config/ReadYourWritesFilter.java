@@ -0,0 +1,71 @@
+package io.github.Piotr7421.courses.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+
+// active without replicas too: the marker also keeps a writer out of read flights started before its commit
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "courses-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final Duration primaryAfterWrite;
+
+    public ReadYourWritesFilter(CoursesProperties properties) {
+        this.primaryAfterWrite = properties.getReadReplica().getPrimaryAfterWrite();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        if (!SAFE_METHODS.contains(request.getMethod())) {
+            // set before the chain runs: the body may already be committed once the write returns
+            Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(now + primaryAfterWrite.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, primaryAfterWrite.toSeconds()));
+            response.addCookie(cookie);
+        }
+        if (primaryUntil(request) > now) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        return Arrays.stream(request.getCookies())
+                .filter(cookie -> COOKIE_NAME.equals(cookie.getName()))
+                .mapToLong(cookie -> parse(cookie.getValue()))
+                .max()
+                .orElse(0);
+    }
+
+    private static long parse(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.Piotr7421.courses.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private final List<HikariDataSource> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(true);
+    }
+
+    public static void unpin() {
+        PINNED_TO_PRIMARY.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED_TO_PRIMARY.get();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || PINNED_TO_PRIMARY.get()) {
+            return PRIMARY;
+        }
+        return Math.floorMod(next.getAndIncrement(), replicas.size());
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -1,50 +1,134 @@
 package io.github.Piotr7421.courses.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.model.command.CreateLessonBatchCommand;
 import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.command.CreateLessonSeriesCommand;
+import io.github.Piotr7421.courses.model.command.ShiftLessonsCommand;
 import io.github.Piotr7421.courses.model.command.UpdateLessonCommand;
+import io.github.Piotr7421.courses.model.dto.LessonBatchItemDto;
 import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.model.dto.PageDto;
+import io.github.Piotr7421.courses.model.projection.CollectionVersion;
+import io.github.Piotr7421.courses.model.projection.Versioned;
+import io.github.Piotr7421.courses.service.IdempotencyService;
+import io.github.Piotr7421.courses.service.LessonBatchService;
+import io.github.Piotr7421.courses.service.LessonExportService;
 import io.github.Piotr7421.courses.service.LessonService;
+import io.github.Piotr7421.courses.service.SingleFlight;
+import io.github.Piotr7421.courses.service.TeacherCommandGateway;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
+@Timed(value = "courses.controller", histogram = true)
 @RequestMapping("/api/v1/lessons")
 public class LessonController {
 
     private final LessonService lessonService;
+    private final LessonExportService lessonExportService;
+    private final LessonBatchService lessonBatchService;
+    private final TeacherCommandGateway teacherCommandGateway;
+    private final IdempotencyService idempotencyService;
+    private final SingleFlight singleFlight;
+    private final CoursesProperties coursesProperties;
 
     @GetMapping
-    public List<LessonDto> findAll() {
-        return (lessonService.findAll());
+    public List<LessonDto> findAll(WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(lessonService.findCollectionVersion().etag())) {
+            return null;
+        }
+        List<Versioned<LessonDto>> items = lessonService.findAllVersioned();
+        if (request.checkNotModified(CollectionVersion.of(items).etag())) {
+            return null;
+        }
+        return items.stream().map(Versioned::body).toList();
+    }
+
+    @GetMapping(params = "limit")
+    public PageDto<LessonDto> findPage(@RequestParam @Min(1) @Max(500) int limit,
+                                       @RequestParam(required = false) String after) {
+        return lessonService.findPage(limit, after);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(WebRequest request) {
+        // a full export outlives the default async timeout that every other request keeps
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest()
+                .setTimeout(coursesProperties.getExport().getTimeout().toMillis());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(lessonExportService::export);
     }
 
     @GetMapping("/{id}")
-    public LessonDto findById(@PathVariable int id) {
-        return lessonService.findById(id);
+    public LessonDto findById(@PathVariable int id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(Versioned.etag(id,
+                singleFlight.execute("lesson", "version:" + id, () -> lessonService.findVersion(id))))) {
+            return null;
+        }
+        Versioned<LessonDto> item = singleFlight.execute("lesson", String.valueOf(id),
+                () -> lessonService.findVersionedById(id));
+        return request.checkNotModified(item.etag()) ? null : item.body();
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public LessonDto create(@RequestBody @Valid CreateLessonCommand command) {
-        return lessonService.save(command);
+    public CompletableFuture<LessonDto> create(@RequestBody @Valid CreateLessonCommand command,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.executeAsync(idempotencyKey, "lessons", command, new TypeReference<>() {
+        }, () -> teacherCommandGateway.createLesson(command));
+    }
+
+    @PostMapping("/batch")
+    public List<LessonBatchItemDto> createBatch(@RequestBody @Valid CreateLessonBatchCommand command,
+                                                @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "lessons/batch", command, new TypeReference<>() {
+        }, () -> lessonBatchService.saveAll(command.getLessons()));
+    }
+
+    @PostMapping("/series")
+    public List<LessonBatchItemDto> createSeries(@RequestBody @Valid CreateLessonSeriesCommand command,
+                                                 @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "lessons/series", command, new TypeReference<>() {
+        }, () -> lessonBatchService.saveSeries(command));
+    }
+
+    @PostMapping("/shift")
+    public List<LessonDto> shift(@RequestBody @Valid ShiftLessonsCommand command) {
+        return lessonBatchService.shift(command);
     }
 
     @PatchMapping("/{id}")
-    public LessonDto update(@PathVariable int id, @RequestBody @Valid UpdateLessonCommand command) {
-        return lessonService.update(id, command);
+    public CompletableFuture<LessonDto> update(@PathVariable int id, @RequestBody @Valid UpdateLessonCommand command) {
+        return teacherCommandGateway.updateLesson(id, command);
     }
 
     @DeleteMapping("/{id}")
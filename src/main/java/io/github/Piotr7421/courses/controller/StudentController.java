@@ -1,7 +1,12 @@
 package io.github.Piotr7421.courses.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,42 +14,85 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import io.github.Piotr7421.courses.model.command.CreateStudentCommand;
+import io.github.Piotr7421.courses.model.command.ReassignStudentsCommand;
 import io.github.Piotr7421.courses.model.command.UpdateStudentCommand;
+import io.github.Piotr7421.courses.model.dto.PageDto;
 import io.github.Piotr7421.courses.model.dto.StudentDto;
+import io.github.Piotr7421.courses.model.dto.StudentReassignmentDto;
+import io.github.Piotr7421.courses.model.projection.CollectionVersion;
+import io.github.Piotr7421.courses.model.projection.Versioned;
+import io.github.Piotr7421.courses.service.IdempotencyService;
+import io.github.Piotr7421.courses.service.SingleFlight;
 import io.github.Piotr7421.courses.service.StudentService;
+import io.github.Piotr7421.courses.service.TeacherCommandGateway;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequiredArgsConstructor
+@Timed(value = "courses.controller", histogram = true)
 @RequestMapping("/api/v1/students")
 public class StudentController {
 
     private final StudentService studentService;
+    private final TeacherCommandGateway teacherCommandGateway;
+    private final IdempotencyService idempotencyService;
+    private final SingleFlight singleFlight;
 
     @GetMapping()
-    public List<StudentDto> findAll() {
-        return studentService.findAll();
+    public List<StudentDto> findAll(WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(studentService.findCollectionVersion().etag())) {
+            return null;
+        }
+        List<Versioned<StudentDto>> items = studentService.findAllVersioned();
+        if (request.checkNotModified(CollectionVersion.of(items).etag())) {
+            return null;
+        }
+        return items.stream().map(Versioned::body).toList();
+    }
+
+    @GetMapping(params = "limit")
+    public PageDto<StudentDto> findPage(@RequestParam @Min(1) @Max(500) int limit,
+                                        @RequestParam(required = false) String after) {
+        return studentService.findPage(limit, after);
     }
 
     @GetMapping("/{id}")
-    public StudentDto findById(@PathVariable int id) {
-        return studentService.findById(id);
+    public StudentDto findById(@PathVariable int id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(Versioned.etag(id,
+                singleFlight.execute("student", "version:" + id, () -> studentService.findVersion(id))))) {
+            return null;
+        }
+        Versioned<StudentDto> item = singleFlight.execute("student", String.valueOf(id),
+                () -> studentService.findVersionedById(id));
+        return request.checkNotModified(item.etag()) ? null : item.body();
     }
 
     @PostMapping()
     @ResponseStatus(HttpStatus.CREATED)
-    public StudentDto create(@RequestBody @Valid CreateStudentCommand command) {
-        return studentService.create(command);
+    public StudentDto create(@RequestBody @Valid CreateStudentCommand command,
+                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "students", command, new TypeReference<>() {
+        }, () -> studentService.create(command));
+    }
+
+    @PostMapping("/reassign")
+    public StudentReassignmentDto reassign(@RequestBody @Valid ReassignStudentsCommand command) {
+        return studentService.reassign(command);
     }
 
     @PatchMapping("/{id}")
-    public StudentDto update(@PathVariable int id, @RequestBody @Valid UpdateStudentCommand command) {
-        return studentService.update(id, command);
+    public CompletableFuture<StudentDto> update(@PathVariable int id, @RequestBody @Valid UpdateStudentCommand command) {
+        return teacherCommandGateway.updateStudent(id, command);
     }
 
     @DeleteMapping("/{id}")
@@ -1,7 +1,13 @@
 package io.github.Piotr7421.courses.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,37 +15,94 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import io.github.Piotr7421.courses.common.Language;
 import io.github.Piotr7421.courses.model.command.CreateTeacherCommand;
 import io.github.Piotr7421.courses.model.command.UpdateTeacherCommand;
+import io.github.Piotr7421.courses.model.dto.FreeSlotDto;
+import io.github.Piotr7421.courses.model.dto.PageDto;
 import io.github.Piotr7421.courses.model.dto.TeacherDto;
+import io.github.Piotr7421.courses.model.projection.CollectionVersion;
+import io.github.Piotr7421.courses.model.projection.Versioned;
+import io.github.Piotr7421.courses.service.IdempotencyService;
+import io.github.Piotr7421.courses.service.SingleFlight;
+import io.github.Piotr7421.courses.service.TeacherAvailabilityService;
 import io.github.Piotr7421.courses.service.TeacherService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
+@Timed(value = "courses.controller", histogram = true)
 @RequestMapping("/api/v1/teachers")
 public class TeacherController {
 
     private final TeacherService teacherService;
+    private final TeacherAvailabilityService teacherAvailabilityService;
+    private final IdempotencyService idempotencyService;
+    private final SingleFlight singleFlight;
 
     @GetMapping()
-    public List<TeacherDto> findAll() {
-        return teacherService.findAll();
+    public List<TeacherDto> findAll(WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(teacherService.findCollectionVersion().etag())) {
+            return null;
+        }
+        List<Versioned<TeacherDto>> items = teacherService.findAllVersioned();
+        if (request.checkNotModified(CollectionVersion.of(items).etag())) {
+            return null;
+        }
+        return items.stream().map(Versioned::body).toList();
+    }
+
+    @GetMapping(params = "language")
+    public List<TeacherDto> findAllByLanguage(@RequestParam Language language) {
+        return teacherService.findAllByLanguage(language);
+    }
+
+    @GetMapping(params = {"language", "date"})
+    public List<TeacherDto> findAvailable(@RequestParam Language language,
+                                          @RequestParam @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm") LocalDateTime date) {
+        return teacherAvailabilityService.findAvailableTeachers(language, date);
+    }
+
+    @GetMapping(params = "limit")
+    public PageDto<TeacherDto> findPage(@RequestParam @Min(1) @Max(500) int limit,
+                                        @RequestParam(required = false) String after) {
+        return teacherService.findPage(limit, after);
     }
 
     @GetMapping("/{id}")
-    public TeacherDto findById(@PathVariable int id) {
-        return teacherService.findById(id);
+    public TeacherDto findById(@PathVariable int id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null && request.checkNotModified(Versioned.etag(id,
+                singleFlight.execute("teacher", "version:" + id, () -> teacherService.findVersion(id))))) {
+            return null;
+        }
+        Versioned<TeacherDto> item = singleFlight.execute("teacher", String.valueOf(id),
+                () -> teacherService.findVersionedById(id));
+        return request.checkNotModified(item.etag()) ? null : item.body();
+    }
+
+    @GetMapping("/{id}/availability")
+    public List<FreeSlotDto> findAvailability(@PathVariable int id,
+                                              @RequestParam @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm") LocalDateTime from,
+                                              @RequestParam @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm") LocalDateTime to,
+                                              @RequestParam(defaultValue = "60") @Min(1) @Max(1440) int duration) {
+        return teacherAvailabilityService.findFreeSlots(id, from, to, duration);
     }
 
     @PostMapping()
     @ResponseStatus(HttpStatus.CREATED)
-    public TeacherDto create(@RequestBody @Valid CreateTeacherCommand command) {
-        return teacherService.create(command);
+    public TeacherDto create(@RequestBody @Valid CreateTeacherCommand command,
+                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "teachers", command, new TypeReference<>() {
+        }, () -> teacherService.create(command));
     }
 
     @PatchMapping("/{id}")
@@ -0,0 +1,8 @@
+package io.github.Piotr7421.courses.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
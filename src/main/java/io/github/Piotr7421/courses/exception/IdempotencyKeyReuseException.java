@@ -0,0 +1,8 @@
+package io.github.Piotr7421.courses.exception;
+
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
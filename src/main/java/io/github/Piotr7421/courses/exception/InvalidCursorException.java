@@ -0,0 +1,8 @@
+package io.github.Piotr7421.courses.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
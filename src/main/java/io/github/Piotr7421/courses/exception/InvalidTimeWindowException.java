@@ -0,0 +1,8 @@
+package io.github.Piotr7421.courses.exception;
+
+public class InvalidTimeWindowException extends RuntimeException {
+
+    public InvalidTimeWindowException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.Piotr7421.courses.exception;
+
+public class TeacherMailboxFullException extends RuntimeException {
+
+    public TeacherMailboxFullException(String message) {
+        super(message);
+    }
+}
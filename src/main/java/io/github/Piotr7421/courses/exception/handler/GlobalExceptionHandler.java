@@ -1,14 +1,20 @@
 package io.github.Piotr7421.courses.exception.handler;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import io.github.Piotr7421.courses.exception.DatabaseConstraintException;
+import io.github.Piotr7421.courses.exception.IdempotencyKeyInProgressException;
+import io.github.Piotr7421.courses.exception.IdempotencyKeyReuseException;
 import io.github.Piotr7421.courses.exception.IncompatibleTeacherLanguageException;
+import io.github.Piotr7421.courses.exception.InvalidCursorException;
 import io.github.Piotr7421.courses.exception.InvalidLanguageException;
+import io.github.Piotr7421.courses.exception.InvalidTimeWindowException;
 import io.github.Piotr7421.courses.exception.LessonAlreadyStartedException;
 import io.github.Piotr7421.courses.exception.LessonNotFoundException;
 import io.github.Piotr7421.courses.exception.OverlappingLessonException;
@@ -16,17 +22,22 @@ import io.github.Piotr7421.courses.exception.StudentNotFoundException;
 import io.github.Piotr7421.courses.exception.StudentOptimisticLockException;
 import io.github.Piotr7421.courses.exception.TeacherHasStudentsException;
 import io.github.Piotr7421.courses.exception.TeacherLockTimeoutException;
+import io.github.Piotr7421.courses.exception.TeacherMailboxFullException;
 import io.github.Piotr7421.courses.exception.TeacherNotFoundException;
 import io.github.Piotr7421.courses.exception.TeacherOptimisticLockException;
 import io.github.Piotr7421.courses.exception.model.ExceptionDto;
 import io.github.Piotr7421.courses.exception.model.ValidationErrorDto;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ValidationErrorDto handleMethodArgumentNotValidException(MethodArgumentNotValidException exception) {
+        count(exception);
         ValidationErrorDto errorDto = new ValidationErrorDto();
         exception.getFieldErrors().forEach(fieldError ->
                 errorDto.addViolation(fieldError.getField(), fieldError.getDefaultMessage()));
@@ -36,10 +47,13 @@ public class GlobalExceptionHandler {
     @ExceptionHandler({
             DatabaseConstraintException.class,
             IncompatibleTeacherLanguageException.class,
-            InvalidLanguageException.class
+            InvalidLanguageException.class,
+            InvalidCursorException.class,
+            InvalidTimeWindowException.class
     })
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ExceptionDto handleSpecifiedExceptions(RuntimeException exception) {
+        count(exception);
         return new ExceptionDto(exception.getMessage());
     }
 
@@ -50,6 +64,7 @@ public class GlobalExceptionHandler {
     })
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ExceptionDto handleNotFoundExceptions(RuntimeException exception) {
+        count(exception);
         return new ExceptionDto(exception.getMessage());
     }
 
@@ -59,16 +74,37 @@ public class GlobalExceptionHandler {
             LessonAlreadyStartedException.class,
             TeacherLockTimeoutException.class,
             StudentOptimisticLockException.class,
-            OverlappingLessonException.class
+            OverlappingLessonException.class,
+            IdempotencyKeyInProgressException.class
     })
     @ResponseStatus(HttpStatus.CONFLICT)
     public ExceptionDto handleSpecifiedOptimisticExceptions(RuntimeException exception) {
+        count(exception);
+        return new ExceptionDto(exception.getMessage());
+    }
+
+    @ExceptionHandler(TeacherMailboxFullException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ExceptionDto handleTeacherMailboxFullException(TeacherMailboxFullException exception) {
+        count(exception);
+        return new ExceptionDto(exception.getMessage());
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public ExceptionDto handleIdempotencyKeyReuseException(IdempotencyKeyReuseException exception) {
+        count(exception);
         return new ExceptionDto(exception.getMessage());
     }
 
     @ExceptionHandler(JsonProcessingException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ExceptionDto handleJsonProcessingException(JsonProcessingException exception) {
+        count(exception);
         return new ExceptionDto(exception.getMessage());
     }
+
+    private void count(Exception exception) {
+        meterRegistry.counter("courses.exceptions", "exception", exception.getClass().getSimpleName()).increment();
+    }
 }
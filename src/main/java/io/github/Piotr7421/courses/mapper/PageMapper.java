@@ -0,0 +1,21 @@
+package io.github.Piotr7421.courses.mapper;
+
+import io.github.Piotr7421.courses.common.Cursor;
+import io.github.Piotr7421.courses.model.dto.PageDto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class PageMapper {
+
+    public static <E, D> PageDto<D> mapToPage(List<E> rows, int limit, Function<E, D> mapper, Function<E, Cursor> cursor) {
+        boolean hasNext = rows.size() > limit;
+        List<E> page = hasNext ? rows.subList(0, limit) : rows;
+        return PageDto.<D>builder()
+                .items(page.stream()
+                        .map(mapper)
+                        .toList())
+                .nextCursor(hasNext ? cursor.apply(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
+}
@@ -1,11 +1,13 @@
 package io.github.Piotr7421.courses.model;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.TableGenerator;
 import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,17 +27,19 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(of = "id")
 public class Lesson {
 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "lesson_id")
+    @TableGenerator(name = "lesson_id", table = "id_generator", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "lesson", allocationSize = 50)
     @Id
     private int id;
 
     private LocalDateTime date;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "teacher_id")
     private Teacher teacher;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id")
     private Student student;
 
@@ -3,12 +3,14 @@ package io.github.Piotr7421.courses.model;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.TableGenerator;
 import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -35,7 +37,9 @@ import java.util.Set;
 public class Student {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "student_id")
+    @TableGenerator(name = "student_id", table = "id_generator", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "student", allocationSize = 50)
     private int id;
 
     private String firstName;
@@ -44,7 +48,7 @@ public class Student {
     @Enumerated(EnumType.STRING)
     private Language language;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "teacher_id")
     private Teacher teacher;
 
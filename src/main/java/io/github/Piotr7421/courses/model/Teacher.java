@@ -1,16 +1,14 @@
 package io.github.Piotr7421.courses.model;
 
-import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
-import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.TableGenerator;
 import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -18,16 +16,22 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.SQLDelete;
 import org.hibernate.annotations.SQLRestriction;
 import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.model.converter.LanguageSetConverter;
 
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
 @Getter
 @Setter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teacher")
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,16 +41,16 @@ import java.util.Set;
 public class Teacher {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "teacher_id")
+    @TableGenerator(name = "teacher_id", table = "id_generator", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "teacher", allocationSize = 50)
     private int id;
     private String firstName;
     private String lastName;
 
-    @Enumerated(EnumType.STRING)
-    @ElementCollection()
-    @CollectionTable(name = "teacher_language", joinColumns = @JoinColumn(name = "teacher_id"))
-    @Column(name = "language")
-    private Set<Language> languages = new HashSet<>();
+    @Convert(converter = LanguageSetConverter.class)
+    @Column(name = "languages")
+    private Set<Language> languages = EnumSet.noneOf(Language.class);
 
     @OneToMany(mappedBy = "teacher")
     @Builder.Default
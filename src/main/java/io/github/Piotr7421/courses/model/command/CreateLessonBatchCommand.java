@@ -0,0 +1,20 @@
+package io.github.Piotr7421.courses.model.command;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@Builder
+@ToString
+public class CreateLessonBatchCommand {
+
+    @NotEmpty(message = "EMPTY_VALUE")
+    @Size(max = 500, message = "SIZE_EXCEEDED_{max}")
+    private List<@Valid CreateLessonCommand> lessons;
+}
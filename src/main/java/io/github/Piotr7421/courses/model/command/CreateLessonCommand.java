@@ -8,6 +8,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.ToString;
 import org.springframework.format.annotation.DateTimeFormat;
+import io.github.Piotr7421.courses.validator.OnSlotGrid;
 
 import java.time.LocalDateTime;
 
@@ -18,6 +19,7 @@ public class CreateLessonCommand {
 
     @NotNull(message = "NULL_VALUE")
     @Future(message = "PAST_DATE")
+    @OnSlotGrid
     @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
     @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm")
     private LocalDateTime date;
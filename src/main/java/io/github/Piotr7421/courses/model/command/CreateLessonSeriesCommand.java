@@ -0,0 +1,48 @@
+package io.github.Piotr7421.courses.model.command;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.format.annotation.DateTimeFormat;
+import io.github.Piotr7421.courses.common.ConflictPolicy;
+import io.github.Piotr7421.courses.common.Recurrence;
+import io.github.Piotr7421.courses.validator.OnSlotGrid;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@ToString
+public class CreateLessonSeriesCommand {
+
+    @NotNull(message = "NULL_VALUE")
+    @Future(message = "PAST_DATE")
+    @OnSlotGrid
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime date;
+
+    @Positive
+    private int teacherId;
+
+    @Positive
+    private int studentId;
+
+    @NotNull(message = "NULL_VALUE")
+    private Recurrence recurrence;
+
+    @Min(value = 1, message = "TOO_SMALL_{value}")
+    private Integer interval;
+
+    @Min(value = 1, message = "TOO_SMALL_{value}")
+    @Max(value = 200, message = "TOO_BIG_{value}")
+    private int occurrences;
+
+    private ConflictPolicy onConflict;
+}
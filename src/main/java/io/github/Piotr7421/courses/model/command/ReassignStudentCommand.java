@@ -0,0 +1,19 @@
+package io.github.Piotr7421.courses.model.command;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class ReassignStudentCommand {
+
+    @Positive
+    private int id;
+
+    @PositiveOrZero
+    private int version;
+}
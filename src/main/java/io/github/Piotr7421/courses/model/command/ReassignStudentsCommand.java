@@ -0,0 +1,24 @@
+package io.github.Piotr7421.courses.model.command;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@Builder
+@ToString
+public class ReassignStudentsCommand {
+
+    @Positive
+    private int teacherId;
+
+    @NotEmpty(message = "EMPTY_VALUE")
+    @Size(max = 1000, message = "SIZE_EXCEEDED_{max}")
+    private List<@Valid ReassignStudentCommand> students;
+}
@@ -0,0 +1,44 @@
+package io.github.Piotr7421.courses.model.command;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.format.annotation.DateTimeFormat;
+import io.github.Piotr7421.courses.validator.OnSlotGrid;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Builder
+@ToString
+public class ShiftLessonsCommand {
+
+    @Positive
+    private int teacherId;
+
+    @NotNull(message = "NULL_VALUE")
+    @Future(message = "PAST_DATE")
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime from;
+
+    @NotNull(message = "NULL_VALUE")
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime to;
+
+    @Min(value = -365, message = "TOO_SMALL_{value}")
+    @Max(value = 365, message = "TOO_BIG_{value}")
+    private int days;
+
+    @Min(value = -1440, message = "TOO_SMALL_{value}")
+    @Max(value = 1440, message = "TOO_BIG_{value}")
+    @OnSlotGrid
+    private int minutes;
+}
@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.ToString;
 import org.springframework.format.annotation.DateTimeFormat;
+import io.github.Piotr7421.courses.validator.OnSlotGrid;
 
 import java.time.LocalDateTime;
 
@@ -17,6 +18,7 @@ public class UpdateLessonCommand {
 
     @NotNull(message = "NULL_VALUE")
     @Future(message = "PAST_DATE")
+    @OnSlotGrid
     @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
     @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm")
     private LocalDateTime date;
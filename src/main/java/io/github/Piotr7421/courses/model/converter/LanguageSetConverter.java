@@ -0,0 +1,52 @@
+package io.github.Piotr7421.courses.model.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import io.github.Piotr7421.courses.common.Language;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// bit n stores Language with ordinal n, so new languages may only be appended to the enum
+@Converter
+public class LanguageSetConverter implements AttributeConverter<Set<Language>, Integer> {
+
+    private static final Language[] LANGUAGES = Language.values();
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<Language> languages) {
+        int mask = 0;
+        if (languages != null) {
+            for (Language language : languages) {
+                mask |= 1 << language.ordinal();
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public Set<Language> convertToEntityAttribute(Integer mask) {
+        EnumSet<Language> languages = EnumSet.noneOf(Language.class);
+        if (mask != null) {
+            for (Language language : LANGUAGES) {
+                if ((mask & 1 << language.ordinal()) != 0) {
+                    languages.add(language);
+                }
+            }
+        }
+        return languages;
+    }
+
+    public static List<Integer> masksContaining(Language language) {
+        List<Integer> masks = new ArrayList<>();
+        int bit = 1 << language.ordinal();
+        for (int mask = 0; mask < 1 << LANGUAGES.length; mask++) {
+            if ((mask & bit) != 0) {
+                masks.add(mask);
+            }
+        }
+        return masks;
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.Piotr7421.courses.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class FreeSlotDto {
+
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime from;
+    @JsonFormat(pattern = "dd-MM-yyyy HH:mm")
+    private LocalDateTime to;
+}
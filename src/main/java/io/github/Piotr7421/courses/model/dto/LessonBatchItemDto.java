@@ -0,0 +1,43 @@
+package io.github.Piotr7421.courses.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class LessonBatchItemDto {
+
+    private int index;
+    private boolean created;
+    private LessonDto lesson;
+    private String message;
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private RuntimeException error;
+
+    public static LessonBatchItemDto created(int index, LessonDto lesson) {
+        return LessonBatchItemDto.builder()
+                .index(index)
+                .created(true)
+                .lesson(lesson)
+                .build();
+    }
+
+    public static LessonBatchItemDto rejected(int index, RuntimeException error) {
+        return LessonBatchItemDto.builder()
+                .index(index)
+                .created(false)
+                .message(error.getMessage())
+                .error(error)
+                .build();
+    }
+}
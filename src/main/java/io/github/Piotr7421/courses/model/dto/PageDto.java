@@ -0,0 +1,16 @@
+package io.github.Piotr7421.courses.model.dto;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+@EqualsAndHashCode
+public class PageDto<T> {
+
+    private List<T> items;
+    private String nextCursor;
+}
@@ -0,0 +1,23 @@
+package io.github.Piotr7421.courses.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class StudentReassignmentDto {
+
+    private int teacherId;
+    private List<Integer> reassignedIds;
+    private List<Integer> failedIds;
+}
@@ -0,0 +1,28 @@
+package io.github.Piotr7421.courses.model.projection;
+
+import java.util.Collection;
+
+// count plus a sum of per-row (id, version) hashes: ids from another instance's pooled block can land below the
+// highest one, so only a marker over every row changes with each insert, update and delete
+public record CollectionVersion(long count, long checksum) {
+
+    // findCollectionVersion in the repositories computes the same hash in JPQL
+    private static final long MODULUS = 2147483647L;
+
+    public static CollectionVersion of(Collection<? extends Versioned<?>> items) {
+        long checksum = 0;
+        for (Versioned<?> item : items) {
+            checksum += hash(item.id(), item.version());
+        }
+        return new CollectionVersion(items.size(), checksum);
+    }
+
+    static long hash(int id, int version) {
+        long mixed = ((long) id * 31 + version) % MODULUS;
+        return mixed * mixed % MODULUS;
+    }
+
+    public String etag() {
+        return "W/\"" + count + "-" + checksum + "\"";
+    }
+}
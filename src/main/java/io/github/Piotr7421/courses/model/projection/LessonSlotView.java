@@ -0,0 +1,10 @@
+package io.github.Piotr7421.courses.model.projection;
+
+import java.time.LocalDateTime;
+
+public interface LessonSlotView {
+
+    int getTeacherId();
+
+    LocalDateTime getDate();
+}
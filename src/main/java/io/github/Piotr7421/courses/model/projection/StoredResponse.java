@@ -0,0 +1,8 @@
+package io.github.Piotr7421.courses.model.projection;
+
+public record StoredResponse(String fingerprint, String body) {
+
+    public boolean isPending() {
+        return body == null;
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.Piotr7421.courses.model.projection;
+
+public record Versioned<T>(int id, int version, T body) {
+
+    public String etag() {
+        return etag(id, version);
+    }
+
+    public static String etag(int id, int version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.Piotr7421.courses.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import io.github.Piotr7421.courses.model.projection.StoredResponse;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Optional<StoredResponse> find(String scope, String key, LocalDateTime notBefore) {
+        List<StoredResponse> responses = jdbcTemplate.query(
+                "select fingerprint, response from idempotency_key where scope = ? and idempotency_key = ? and created_at >= ?",
+                (rs, rowNum) -> new StoredResponse(rs.getString("fingerprint"), rs.getString("response")),
+                scope, key, Timestamp.valueOf(notBefore));
+        return responses.stream().findFirst();
+    }
+
+    // a row without a response marks a request still running; false when a live row for the key already exists
+    public boolean reserve(String scope, String key, String fingerprint, LocalDateTime createdAt, LocalDateTime notBefore) {
+        try {
+            jdbcTemplate.update(
+                    "insert into idempotency_key (scope, idempotency_key, fingerprint, created_at) values (?, ?, ?, ?)",
+                    scope, key, fingerprint, Timestamp.valueOf(createdAt));
+            return true;
+        } catch (DuplicateKeyException e) {
+            // an expired row not purged yet is taken over
+            return jdbcTemplate.update(
+                    "update idempotency_key set fingerprint = ?, response = null, created_at = ? where scope = ? and idempotency_key = ? and created_at < ?",
+                    fingerprint, Timestamp.valueOf(createdAt), scope, key, Timestamp.valueOf(notBefore)) == 1;
+        }
+    }
+
+    public int saveResponse(String scope, String key, String response) {
+        return jdbcTemplate.update(
+                "update idempotency_key set response = ? where scope = ? and idempotency_key = ? and response is null",
+                response, scope, key);
+    }
+
+    public void release(String scope, String key) {
+        jdbcTemplate.update("delete from idempotency_key where scope = ? and idempotency_key = ? and response is null", scope, key);
+    }
+
+    public int deleteCreatedBefore(LocalDateTime before, int limit) {
+        return jdbcTemplate.update("delete from idempotency_key where created_at < ? limit ?", Timestamp.valueOf(before), limit);
+    }
+}
@@ -1,13 +1,26 @@
 package io.github.Piotr7421.courses.repository;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import io.github.Piotr7421.courses.model.Lesson;
 import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.model.projection.CollectionVersion;
+import io.github.Piotr7421.courses.model.projection.LessonSlotView;
+import io.github.Piotr7421.courses.model.projection.Versioned;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface LessonRepository extends JpaRepository<Lesson, Integer> {
 
@@ -17,4 +30,72 @@ public interface LessonRepository extends JpaRepository<Lesson, Integer> {
 
     @Lock(LockModeType.OPTIMISTIC)
     Optional<Lesson> findWithLockingById(int id);
+
+    @Query("select new io.github.Piotr7421.courses.model.dto.LessonDto(l.id, l.date, l.teacher.id, l.student.id) from Lesson l")
+    List<LessonDto> findAllAsDto();
+
+    @Query("select new io.github.Piotr7421.courses.model.dto.LessonDto(l.id, l.date, l.teacher.id, l.student.id) from Lesson l where l.id = :id")
+    Optional<LessonDto> findDtoById(@Param("id") int id);
+
+    @Query("select new io.github.Piotr7421.courses.model.projection.Versioned(l.id, l.version, new io.github.Piotr7421.courses.model.dto.LessonDto(l.id, l.date, l.teacher.id, l.student.id)) from Lesson l")
+    List<Versioned<LessonDto>> findAllVersioned();
+
+    @Query("select new io.github.Piotr7421.courses.model.projection.Versioned(l.id, l.version, new io.github.Piotr7421.courses.model.dto.LessonDto(l.id, l.date, l.teacher.id, l.student.id)) from Lesson l where l.id = :id")
+    Optional<Versioned<LessonDto>> findVersionedById(@Param("id") int id);
+
+    @Query("select l.version from Lesson l where l.id = :id")
+    Optional<Integer> findVersionById(@Param("id") int id);
+
+    @Query("select new io.github.Piotr7421.courses.model.projection.CollectionVersion(count(l), " +
+            "coalesce(sum(mod(mod(cast(l.id as Long) * 31 + l.version, 2147483647) * mod(cast(l.id as Long) * 31 + l.version, 2147483647), 2147483647)), 0)) from Lesson l")
+    CollectionVersion findCollectionVersion();
+
+    @Query("select new io.github.Piotr7421.courses.model.dto.LessonDto(l.id, l.date, l.teacher.id, l.student.id) from Lesson l order by l.date, l.id")
+    List<LessonDto> findDtoPage(Limit limit);
+
+    @Query("select new io.github.Piotr7421.courses.model.dto.LessonDto(l.id, l.date, l.teacher.id, l.student.id) from Lesson l " +
+            "where l.date >= :date and (l.date > :date or l.id > :id) order by l.date, l.id")
+    List<LessonDto> findDtoPageAfter(@Param("date") LocalDateTime date, @Param("id") int id, Limit limit);
+
+    @Query("select l.teacher.id as teacherId, l.date as date from Lesson l where l.date > :from")
+    List<LessonSlotView> findAllSlotsAfter(@Param("from") LocalDateTime from);
+
+    @Query("select l.date from Lesson l where l.teacher.id = :teacherId and l.date > :from")
+    List<LocalDateTime> findAllDatesByTeacherIdAfter(@Param("teacherId") int teacherId, @Param("from") LocalDateTime from);
+
+    @Query("select l.date from Lesson l where l.teacher.id = :teacherId and l.date > :from and l.date < :to order by l.date")
+    List<LocalDateTime> findAllDatesByTeacherIdBetween(@Param("teacherId") int teacherId,
+                                                       @Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to);
+
+    @Query("select new io.github.Piotr7421.courses.model.dto.LessonDto(l.id, l.date, l.teacher.id, l.student.id) from Lesson l " +
+            "where l.teacher.id = :teacherId and l.date >= :from and l.date < :to order by l.date")
+    List<LessonDto> findAllDtoByTeacherIdInRange(@Param("teacherId") int teacherId,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
+
+    // lessons staying outside [from, to) that a lesson from inside the range would overlap once moved by :minutes
+    @Query(value = "select count(*) from lesson m join lesson o on o.teacher_id = m.teacher_id " +
+            "where m.teacher_id = :teacherId and m.date >= :from and m.date < :to " +
+            "and (o.date < :from or o.date >= :to) " +
+            "and o.date > timestampadd(minute, :minutes - 60, m.date) " +
+            "and o.date < timestampadd(minute, :minutes + 60, m.date)", nativeQuery = true)
+    long countShiftConflicts(@Param("teacherId") int teacherId,
+                             @Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to,
+                             @Param("minutes") int minutes);
+
+    // without declared spaces Hibernate treats the native update as touching every table and evicts all cache regions
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "lesson"))
+    @Query(value = "update lesson set date = timestampadd(minute, :minutes, date), version = version + 1 " +
+            "where teacher_id = :teacherId and date >= :from and date < :to", nativeQuery = true)
+    int shiftDates(@Param("teacherId") int teacherId,
+                   @Param("from") LocalDateTime from,
+                   @Param("to") LocalDateTime to,
+                   @Param("minutes") int minutes);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new io.github.Piotr7421.courses.model.dto.LessonDto(l.id, l.date, l.teacher.id, l.student.id) from Lesson l order by l.id")
+    Stream<LessonDto> streamAllForExport();
 }
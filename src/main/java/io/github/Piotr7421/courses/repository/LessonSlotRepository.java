@@ -0,0 +1,73 @@
+package io.github.Piotr7421.courses.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import io.github.Piotr7421.courses.exception.OverlappingLessonException;
+import io.github.Piotr7421.courses.exception.TeacherLockTimeoutException;
+import io.github.Piotr7421.courses.model.Lesson;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class LessonSlotRepository {
+
+    public static final int SLOT_MINUTES = 15;
+
+    private static final int LESSON_MINUTES = 60;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void claim(Lesson lesson) {
+        claimAll(List.of(lesson));
+    }
+
+    public void claimAll(Collection<Lesson> lessons) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Lesson lesson : lessons) {
+            for (LocalDateTime slotStart : slotStarts(lesson.getDate())) {
+                rows.add(new Object[]{lesson.getTeacher().getId(), Timestamp.valueOf(slotStart), lesson.getId()});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate("insert into lesson_slot (teacher_id, slot_start, lesson_id) values (?, ?, ?)", rows);
+        } catch (DuplicateKeyException e) {
+            throw new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher.");
+        } catch (PessimisticLockingFailureException e) {
+            throw new TeacherLockTimeoutException("Could not acquire lock on teacher - operation timed out");
+        }
+    }
+
+    public void release(int lessonId) {
+        jdbcTemplate.update("delete from lesson_slot where lesson_id = ?", lessonId);
+    }
+
+    public void releaseAll(Collection<Integer> lessonIds) {
+        jdbcTemplate.batchUpdate("delete from lesson_slot where lesson_id = ?", lessonIds.stream()
+                .map(lessonId -> new Object[]{lessonId})
+                .toList());
+    }
+
+    public static List<LocalDateTime> slotStarts(LocalDateTime date) {
+        LocalDateTime start = date.truncatedTo(ChronoUnit.MINUTES);
+        LocalDateTime slot = start.minusMinutes(start.getMinute() % SLOT_MINUTES);
+        LocalDateTime end = date.plusMinutes(LESSON_MINUTES);
+        List<LocalDateTime> slots = new ArrayList<>();
+        while (slot.isBefore(end)) {
+            slots.add(slot);
+            slot = slot.plusMinutes(SLOT_MINUTES);
+        }
+        return slots;
+    }
+}
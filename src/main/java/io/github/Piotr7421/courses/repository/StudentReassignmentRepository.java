@@ -0,0 +1,32 @@
+package io.github.Piotr7421.courses.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import io.github.Piotr7421.courses.model.command.ReassignStudentCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class StudentReassignmentRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // returns the ids whose row was not updated: version changed, student deleted or missing
+    public List<Integer> reassign(int teacherId, List<ReassignStudentCommand> students) {
+        int[] counts = jdbcTemplate.batchUpdate(
+                "update student set teacher_id = ?, version = version + 1 where id = ? and version = ? and active = true",
+                students.stream()
+                        .map(student -> new Object[]{teacherId, student.getId(), student.getVersion()})
+                        .toList());
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                failed.add(students.get(i).getId());
+            }
+        }
+        return failed;
+    }
+}
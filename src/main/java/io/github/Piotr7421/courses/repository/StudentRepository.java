@@ -1,10 +1,19 @@
 package io.github.Piotr7421.courses.repository;
 
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import io.github.Piotr7421.courses.common.Language;
 import io.github.Piotr7421.courses.model.Student;
+import io.github.Piotr7421.courses.model.dto.StudentDto;
+import io.github.Piotr7421.courses.model.projection.CollectionVersion;
+import io.github.Piotr7421.courses.model.projection.Versioned;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -13,5 +22,37 @@ public interface StudentRepository extends JpaRepository<Student, Integer> {
     @Lock(LockModeType.OPTIMISTIC)
     Optional<Student> findWithLockingById(int id);
 
-    Set<Student> findAllByTeacherId(int id);
+    @Query("select s from Student s where s.teacher.id = :teacherId")
+    Set<Student> findAllByTeacherId(@Param("teacherId") int id);
+
+    @Query("select distinct s.language from Student s where s.teacher.id = :teacherId and s.language in :languages")
+    List<Language> findDistinctLanguagesByTeacherIdAndLanguageIn(@Param("teacherId") int teacherId,
+                                                                 @Param("languages") Collection<Language> languages);
+
+    @Query("select distinct s.language from Student s where s.id in :ids and s.language in :languages")
+    List<Language> findDistinctLanguagesByIdInAndLanguageIn(@Param("ids") Collection<Integer> ids,
+                                                            @Param("languages") Collection<Language> languages);
+
+    @Query("select new io.github.Piotr7421.courses.model.dto.StudentDto(s.id, s.firstName, s.lastName, s.language, s.teacher.id) from Student s")
+    List<StudentDto> findAllAsDto();
+
+    @Query("select new io.github.Piotr7421.courses.model.dto.StudentDto(s.id, s.firstName, s.lastName, s.language, s.teacher.id) from Student s where s.id = :id")
+    Optional<StudentDto> findDtoById(@Param("id") int id);
+
+    @Query("select new io.github.Piotr7421.courses.model.projection.Versioned(s.id, s.version, new io.github.Piotr7421.courses.model.dto.StudentDto(s.id, s.firstName, s.lastName, s.language, s.teacher.id)) from Student s")
+    List<Versioned<StudentDto>> findAllVersioned();
+
+    @Query("select new io.github.Piotr7421.courses.model.projection.Versioned(s.id, s.version, new io.github.Piotr7421.courses.model.dto.StudentDto(s.id, s.firstName, s.lastName, s.language, s.teacher.id)) from Student s where s.id = :id")
+    Optional<Versioned<StudentDto>> findVersionedById(@Param("id") int id);
+
+    @Query("select s.version from Student s where s.id = :id")
+    Optional<Integer> findVersionById(@Param("id") int id);
+
+    @Query("select new io.github.Piotr7421.courses.model.projection.CollectionVersion(count(s), " +
+            "coalesce(sum(mod(mod(cast(s.id as Long) * 31 + s.version, 2147483647) * mod(cast(s.id as Long) * 31 + s.version, 2147483647), 2147483647)), 0)) from Student s")
+    CollectionVersion findCollectionVersion();
+
+    @Query("select new io.github.Piotr7421.courses.model.dto.StudentDto(s.id, s.firstName, s.lastName, s.language, s.teacher.id) from Student s " +
+            "where s.id > :id order by s.id")
+    List<StudentDto> findDtoPageAfter(@Param("id") int id, Limit limit);
 }
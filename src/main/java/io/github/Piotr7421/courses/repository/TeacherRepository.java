@@ -1,33 +1,59 @@
 package io.github.Piotr7421.courses.repository;
 
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.model.dto.TeacherDto;
+import io.github.Piotr7421.courses.model.projection.CollectionVersion;
+import io.github.Piotr7421.courses.model.projection.Versioned;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface TeacherRepository extends JpaRepository<Teacher, Integer> {
 
     @Lock(LockModeType.OPTIMISTIC)
-    @EntityGraph(attributePaths = "languages")
     Optional<Teacher> findWithLockingById(int teacherId);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @EntityGraph(attributePaths = "languages")
     Optional<Teacher> findWithPessimisticLockingById(int teacherId);
 
-    @EntityGraph(attributePaths = "languages")
-    List<Teacher> findAll();
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new io.github.Piotr7421.courses.model.dto.TeacherDto(t.id, t.firstName, t.lastName, t.languages) from Teacher t")
+    List<TeacherDto> findAllAsDto();
 
-    @EntityGraph(attributePaths = "languages")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new io.github.Piotr7421.courses.model.projection.Versioned(t.id, t.version, new io.github.Piotr7421.courses.model.dto.TeacherDto(t.id, t.firstName, t.lastName, t.languages)) from Teacher t")
+    List<Versioned<TeacherDto>> findAllVersioned();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select new io.github.Piotr7421.courses.model.projection.CollectionVersion(count(t), " +
+            "coalesce(sum(mod(mod(cast(t.id as Long) * 31 + t.version, 2147483647) * mod(cast(t.id as Long) * 31 + t.version, 2147483647), 2147483647)), 0)) from Teacher t")
+    CollectionVersion findCollectionVersion();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Teacher> findById(int id);
 
-    @EntityGraph(attributePaths = {"languages", "students"})
+    @Query("select new io.github.Piotr7421.courses.model.dto.TeacherDto(t.id, t.firstName, t.lastName, t.languages) from Teacher t " +
+            "where t.id > :id order by t.id")
+    List<TeacherDto> findDtoPageAfter(@Param("id") int id, Limit limit);
+
+    @Query("select t.id from Teacher t where t.active = true")
+    List<Integer> findAllActiveIds();
+
+    @Query(value = "select * from teacher where active = true and languages in (:masks)", nativeQuery = true)
+    List<Teacher> findAllByLanguageMasks(@Param("masks") Collection<Integer> masks);
+
+    @EntityGraph(attributePaths = "students")
     @Query("select t from Teacher t where t.id = :id")
     Optional<Teacher> findByIdWithStudents(@Param("id") int id);
 }
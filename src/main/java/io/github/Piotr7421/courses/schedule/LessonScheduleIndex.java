@@ -0,0 +1,223 @@
+package io.github.Piotr7421.courses.schedule;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.OverlappingLessonException;
+import io.github.Piotr7421.courses.model.Lesson;
+import io.github.Piotr7421.courses.repository.LessonRepository;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class LessonScheduleIndex {
+
+    private final LessonRepository lessonRepository;
+    private final TeacherRepository teacherRepository;
+    private final CoursesProperties properties;
+    private final TransactionTemplate primaryRead;
+    private final Map<Integer, TeacherSchedule> schedules = new ConcurrentHashMap<>();
+
+    public LessonScheduleIndex(LessonRepository lessonRepository, TeacherRepository teacherRepository,
+                               CoursesProperties properties, PlatformTransactionManager transactionManager) {
+        this.lessonRepository = lessonRepository;
+        this.teacherRepository = teacherRepository;
+        this.properties = properties;
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isEnabled() {
+        return properties.getLessonIndex().isEnabled();
+    }
+
+    // read-write on purpose: with read replicas enabled the index must be built from the primary
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<Integer, TeacherSchedule> loaded = new HashMap<>();
+        // teachers without lessons get an empty schedule too, so a search never loads them one by one
+        teacherRepository.findAllActiveIds().forEach(teacherId -> loaded.put(teacherId, new TeacherSchedule()));
+        lessonRepository.findAllSlotsAfter(horizon()).forEach(slot -> loaded
+                .computeIfAbsent(slot.getTeacherId(), teacherId -> new TeacherSchedule())
+                .add(slot.getDate()));
+        loaded.forEach(schedules::putIfAbsent);
+    }
+
+    public boolean overlaps(int teacherId, LocalDateTime date) {
+        return schedule(teacherId).overlaps(date);
+    }
+
+    public void reserve(Lesson lesson) {
+        reserve(lesson, properties.getLessonIndex().isVerifyOnCommit() && !properties.getLessonSlot().isLockFree());
+    }
+
+    // for lessons already checked against the committed rows of their range under the teacher lock
+    public void reserveChecked(Lesson lesson) {
+        reserve(lesson, false);
+    }
+
+    private void reserve(Lesson lesson, boolean verify) {
+        if (!isEnabled()) {
+            return;
+        }
+        int teacherId = lesson.getTeacher().getId();
+        LocalDateTime date = lesson.getDate();
+        TeacherSchedule schedule = schedule(teacherId);
+        schedule.removeBefore(horizon());
+        // a schedule first loaded after the caller's flush already holds the lesson
+        if (!schedule.contains(date)) {
+            schedule.add(date);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        if (verify) {
+            commitVerification().add(teacherId, date);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    schedule.remove(date);
+                }
+            }
+        });
+    }
+
+    private CommitVerification commitVerification() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof CommitVerification verification && verification.index() == this) {
+                return verification;
+            }
+        }
+        CommitVerification verification = new CommitVerification();
+        TransactionSynchronizationManager.registerSynchronization(verification);
+        return verification;
+    }
+
+    public void register(int teacherId) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            schedules.putIfAbsent(teacherId, new TeacherSchedule());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                schedules.putIfAbsent(teacherId, new TeacherSchedule());
+            }
+        });
+    }
+
+    public void release(int teacherId, LocalDateTime date) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            schedule(teacherId).remove(date);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                schedule(teacherId).remove(date);
+            }
+        });
+    }
+
+    public void move(int teacherId, List<LocalDateTime> released, List<LocalDateTime> reserved) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(teacherId, released, reserved);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(teacherId, released, reserved);
+            }
+        });
+    }
+
+    private void apply(int teacherId, List<LocalDateTime> released, List<LocalDateTime> reserved) {
+        // a schedule not cached yet is loaded from the committed rows on first use
+        TeacherSchedule schedule = schedules.get(teacherId);
+        if (schedule != null) {
+            released.forEach(schedule::remove);
+            reserved.forEach(schedule::add);
+        }
+    }
+
+    private TeacherSchedule schedule(int teacherId) {
+        TeacherSchedule schedule = schedules.get(teacherId);
+        if (schedule != null) {
+            return schedule;
+        }
+        TeacherSchedule loaded = new TeacherSchedule();
+        // a read-only transaction may be served by a lagging replica, and this schedule guards bookings
+        List<LocalDateTime> dates = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? primaryRead.execute(status -> lessonRepository.findAllDatesByTeacherIdAfter(teacherId, horizon()))
+                : lessonRepository.findAllDatesByTeacherIdAfter(teacherId, horizon());
+        dates.forEach(loaded::add);
+        schedule = schedules.putIfAbsent(teacherId, loaded);
+        return schedule != null ? schedule : loaded;
+    }
+
+    private static LocalDateTime horizon() {
+        return LocalDateTime.now().minusHours(1);
+    }
+
+    // one range query per teacher before commit, however many lessons the transaction booked for them
+    private class CommitVerification implements TransactionSynchronization {
+
+        private final Map<Integer, List<LocalDateTime>> reserved = new HashMap<>();
+
+        LessonScheduleIndex index() {
+            return LessonScheduleIndex.this;
+        }
+
+        void add(int teacherId, LocalDateTime date) {
+            reserved.computeIfAbsent(teacherId, id -> new ArrayList<>()).add(date);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            reserved.forEach((teacherId, dates) -> {
+                LocalDateTime from = Collections.min(dates).minusHours(1);
+                LocalDateTime to = Collections.max(dates).plusHours(1);
+                TeacherSchedule committed = new TeacherSchedule();
+                lessonRepository.findAllDatesByTeacherIdBetween(teacherId, from, to).forEach(committed::add);
+                for (LocalDateTime date : dates) {
+                    // the flushed row of the lesson itself is in the range too
+                    committed.remove(date);
+                    if (committed.overlaps(date)) {
+                        throw new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher.");
+                    }
+                    committed.add(date);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package io.github.Piotr7421.courses.schedule;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.model.dto.TeacherDto;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// per instance: a teacher written through another node shows up here only after a restart, so with more than
+// one node searches can miss new teachers or return stale languages until then
+@Component
+@RequiredArgsConstructor
+public class TeacherLanguageIndex {
+
+    private final TeacherRepository teacherRepository;
+    private final LessonScheduleIndex lessonScheduleIndex;
+    private final CoursesProperties properties;
+    // copy-on-write: published snapshots, their maps and bitsets are never mutated, so searches need no locking
+    private volatile Snapshot snapshot = new Snapshot(new EnumMap<>(Language.class), Map.of());
+
+    public boolean isEnabled() {
+        return properties.getTeacherIndex().isEnabled() && lessonScheduleIndex.isEnabled();
+    }
+
+    // read-write on purpose: with read replicas enabled the index must be built from the primary
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void warmUp() {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<Language, BitSet> loaded = new EnumMap<>(Language.class);
+        Map<Integer, TeacherDto> teachers = new HashMap<>();
+        teacherRepository.findAllAsDto().forEach(teacher -> {
+            teachers.put(teacher.getId(), teacher);
+            teacher.getLanguages()
+                    .forEach(language -> loaded.computeIfAbsent(language, key -> new BitSet()).set(teacher.getId()));
+        });
+        snapshot = new Snapshot(loaded, teachers);
+    }
+
+    // sorted by id
+    public List<TeacherDto> findAvailable(Language language, LocalDateTime date) {
+        Snapshot current = snapshot;
+        BitSet teachers = current.teachersByLanguage().get(language);
+        List<TeacherDto> available = new ArrayList<>();
+        if (teachers == null) {
+            return available;
+        }
+        for (int teacherId = teachers.nextSetBit(0); teacherId >= 0; teacherId = teachers.nextSetBit(teacherId + 1)) {
+            if (!lessonScheduleIndex.overlaps(teacherId, date)) {
+                available.add(current.teachers().get(teacherId));
+            }
+        }
+        return available;
+    }
+
+    public void put(TeacherDto teacher) {
+        afterCommit(() -> update(teacher.getId(), teacher));
+    }
+
+    public void remove(int teacherId) {
+        afterCommit(() -> update(teacherId, null));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private synchronized void update(int teacherId, TeacherDto teacher) {
+        Set<Language> languages = teacher == null ? Set.of() : teacher.getLanguages();
+        Map<Language, BitSet> updated = new EnumMap<>(Language.class);
+        for (Language language : Language.values()) {
+            BitSet current = snapshot.teachersByLanguage().get(language);
+            boolean member = languages.contains(language);
+            if (current == null && !member) {
+                continue;
+            }
+            BitSet copy = current == null ? new BitSet() : (BitSet) current.clone();
+            copy.set(teacherId, member);
+            updated.put(language, copy);
+        }
+        Map<Integer, TeacherDto> teachers = new HashMap<>(snapshot.teachers());
+        if (teacher == null) {
+            teachers.remove(teacherId);
+        } else {
+            teachers.put(teacherId, teacher);
+        }
+        snapshot = new Snapshot(updated, teachers);
+    }
+
+    private record Snapshot(Map<Language, BitSet> teachersByLanguage, Map<Integer, TeacherDto> teachers) {
+    }
+}
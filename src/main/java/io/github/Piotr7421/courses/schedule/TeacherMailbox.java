@@ -0,0 +1,74 @@
+package io.github.Piotr7421.courses.schedule;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.TeacherMailboxFullException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Component
+public class TeacherMailbox implements DisposableBean {
+
+    private final ThreadPoolExecutor[] stripes;
+    private final Thread[] writers;
+
+    public TeacherMailbox(CoursesProperties properties, MeterRegistry meterRegistry) {
+        CoursesProperties.TeacherMailbox config = properties.getTeacherMailbox();
+        int count = config.isEnabled() ? config.getStripes() : 0;
+        stripes = new ThreadPoolExecutor[count];
+        writers = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            int stripe = i;
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(config.getCapacity()), runnable -> {
+                Thread thread = new Thread(runnable, "teacher-mailbox-" + stripe);
+                thread.setDaemon(true);
+                writers[stripe] = thread;
+                return thread;
+            });
+            stripes[i].prestartCoreThread();
+            Gauge.builder("courses.teacher.mailbox.depth", stripes[i], executor -> executor.getQueue().size())
+                    .tag("stripe", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return stripes.length > 0;
+    }
+
+    // true when the caller already is the single writer for this teacher, so no row lock is needed
+    public boolean isWriter(int teacherId) {
+        return isEnabled() && writers[stripe(teacherId)] == Thread.currentThread();
+    }
+
+    public <T> CompletableFuture<T> submit(int teacherId, Supplier<T> command) {
+        if (!isEnabled()) {
+            return CompletableFuture.completedFuture(command.get());
+        }
+        try {
+            return CompletableFuture.supplyAsync(command, stripes[stripe(teacherId)]);
+        } catch (RejectedExecutionException e) {
+            throw new TeacherMailboxFullException("Too many pending operations for this teacher - try again later");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdown();
+        }
+    }
+
+    private int stripe(int teacherId) {
+        return Math.floorMod(teacherId, stripes.length);
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.Piotr7421.courses.schedule;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+public class TeacherSchedule {
+
+    private static final long LESSON_LENGTH_SECONDS = 3600;
+
+    private long[] starts = new long[8];
+    private int size;
+
+    public boolean overlaps(LocalDateTime date) {
+        return overlaps(toSeconds(date));
+    }
+
+    public boolean contains(LocalDateTime date) {
+        return contains(toSeconds(date));
+    }
+
+    public void add(LocalDateTime date) {
+        add(toSeconds(date));
+    }
+
+    public void remove(LocalDateTime date) {
+        remove(toSeconds(date));
+    }
+
+    public void removeBefore(LocalDateTime date) {
+        removeBefore(toSeconds(date));
+    }
+
+    synchronized boolean overlaps(long start) {
+        int index = lowerBound(start - LESSON_LENGTH_SECONDS + 1);
+        return index < size && starts[index] < start + LESSON_LENGTH_SECONDS;
+    }
+
+    synchronized boolean contains(long start) {
+        int index = lowerBound(start);
+        return index < size && starts[index] == start;
+    }
+
+    synchronized void add(long start) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+        }
+        int index = lowerBound(start);
+        System.arraycopy(starts, index, starts, index + 1, size - index);
+        starts[index] = start;
+        size++;
+    }
+
+    synchronized void remove(long start) {
+        int index = lowerBound(start);
+        if (index < size && starts[index] == start) {
+            System.arraycopy(starts, index + 1, starts, index, size - index - 1);
+            size--;
+        }
+    }
+
+    synchronized void removeBefore(long horizon) {
+        int index = lowerBound(horizon);
+        if (index > 0) {
+            System.arraycopy(starts, index, starts, 0, size - index);
+            size -= index;
+        }
+    }
+
+    private int lowerBound(long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long toSeconds(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.Piotr7421.courses.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.IdempotencyKeyInProgressException;
+import io.github.Piotr7421.courses.exception.IdempotencyKeyReuseException;
+import io.github.Piotr7421.courses.model.projection.StoredResponse;
+import io.github.Piotr7421.courses.repository.IdempotencyKeyRepository;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+    private final Cache<String, StoredResponse> responses;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository, ObjectMapper objectMapper,
+                              CoursesProperties properties, MeterRegistry meterRegistry) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.ttl = properties.getIdempotency().getTtl();
+        this.purgeBatchSize = properties.getIdempotency().getPurgeBatchSize();
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(properties.getIdempotency().getCacheSize())
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public <T> T execute(String key, String scope, Object request, TypeReference<T> type, Supplier<T> action) {
+        try {
+            return executeAsync(key, scope, request, type, () -> CompletableFuture.completedFuture(action.get())).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String key, String scope, Object request, TypeReference<T> type,
+                                                 Supplier<CompletableFuture<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        String id = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+        StoredResponse stored = findStored(id, scope, key);
+        if (stored != null && !stored.isPending()) {
+            return CompletableFuture.completedFuture(replay(stored, fingerprint, scope, type));
+        }
+        InFlight execution = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(id, execution);
+        if (running != null) {
+            verify(running.fingerprint(), fingerprint);
+            meterRegistry.counter("courses.idempotency.replay", "scope", scope, "source", "in-flight").increment();
+            return (CompletableFuture<T>) running.result();
+        }
+        try {
+            // the key is reserved before the action runs, so a retry on another instance cannot run it a second time
+            stored = reserve(id, scope, key, fingerprint);
+            if (stored != null) {
+                T replayed = replay(stored, fingerprint, scope, type);
+                inFlight.remove(id, execution);
+                execution.result().complete(replayed);
+                return CompletableFuture.completedFuture(replayed);
+            }
+        } catch (RuntimeException e) {
+            inFlight.remove(id, execution);
+            execution.result().completeExceptionally(e);
+            throw e;
+        }
+        CompletableFuture<T> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, exception) -> {
+            Throwable failure = exception instanceof CompletionException && exception.getCause() != null
+                    ? exception.getCause() : exception;
+            try {
+                if (failure == null) {
+                    store(id, scope, key, fingerprint, value);
+                } else {
+                    idempotencyKeyRepository.release(scope, key);
+                }
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+            inFlight.remove(id, execution);
+            if (failure == null) {
+                execution.result().complete(value);
+            } else {
+                execution.result().completeExceptionally(failure);
+            }
+        });
+        return (CompletableFuture<T>) execution.result();
+    }
+
+    @Scheduled(fixedDelayString = "${courses.idempotency.purge-interval:1h}")
+    public void purgeExpired() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(ttl);
+        int deleted;
+        do {
+            deleted = idempotencyKeyRepository.deleteCreatedBefore(expiredBefore, purgeBatchSize);
+        } while (deleted == purgeBatchSize);
+    }
+
+    private StoredResponse findStored(String id, String scope, String key) {
+        StoredResponse stored = responses.getIfPresent(id);
+        if (stored == null) {
+            stored = idempotencyKeyRepository.find(scope, key, LocalDateTime.now().minus(ttl)).orElse(null);
+            if (stored != null && !stored.isPending()) {
+                responses.put(id, stored);
+            }
+        }
+        return stored;
+    }
+
+    private StoredResponse reserve(String id, String scope, String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        if (idempotencyKeyRepository.reserve(scope, key, fingerprint, now, now.minus(ttl))) {
+            return null;
+        }
+        StoredResponse stored = findStored(id, scope, key);
+        if (stored == null) {
+            // the owner failed and released the key in between
+            if (idempotencyKeyRepository.reserve(scope, key, fingerprint, now, now.minus(ttl))) {
+                return null;
+            }
+        } else {
+            verify(stored.fingerprint(), fingerprint);
+            if (!stored.isPending()) {
+                return stored;
+            }
+        }
+        throw new IdempotencyKeyInProgressException("A request with this idempotency key is still being processed");
+    }
+
+    private <T> T replay(StoredResponse stored, String fingerprint, String scope, TypeReference<T> type) {
+        verify(stored.fingerprint(), fingerprint);
+        meterRegistry.counter("courses.idempotency.replay", "scope", scope, "source", "stored").increment();
+        try {
+            return objectMapper.readValue(stored.body(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response could not be read", e);
+        }
+    }
+
+    private void store(String id, String scope, String key, String fingerprint, Object value) {
+        StoredResponse response;
+        try {
+            response = new StoredResponse(fingerprint, objectMapper.writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be stored", e);
+        }
+        if (idempotencyKeyRepository.saveResponse(scope, key, response.body()) != 1) {
+            throw new IllegalStateException("Idempotency key reservation was lost before the response was stored");
+        }
+        responses.put(id, response);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Request fingerprint could not be computed", e);
+        }
+    }
+
+    private static void verify(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new IdempotencyKeyReuseException("Idempotency key was already used with a different request");
+        }
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<Object> result) {
+    }
+}
@@ -0,0 +1,266 @@
+package io.github.Piotr7421.courses.service;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import io.github.Piotr7421.courses.common.ConflictPolicy;
+import io.github.Piotr7421.courses.common.Recurrence;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.InvalidTimeWindowException;
+import io.github.Piotr7421.courses.exception.OverlappingLessonException;
+import io.github.Piotr7421.courses.exception.StudentNotFoundException;
+import io.github.Piotr7421.courses.exception.TeacherLockTimeoutException;
+import io.github.Piotr7421.courses.exception.TeacherNotFoundException;
+import io.github.Piotr7421.courses.mapper.LessonMapper;
+import io.github.Piotr7421.courses.model.Lesson;
+import io.github.Piotr7421.courses.model.Student;
+import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.command.CreateLessonSeriesCommand;
+import io.github.Piotr7421.courses.model.command.ShiftLessonsCommand;
+import io.github.Piotr7421.courses.model.dto.LessonBatchItemDto;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.repository.LessonRepository;
+import io.github.Piotr7421.courses.repository.LessonSlotRepository;
+import io.github.Piotr7421.courses.repository.StudentRepository;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.LessonScheduleIndex;
+import io.github.Piotr7421.courses.schedule.TeacherSchedule;
+
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Timed(value = "courses.service", histogram = true)
+public class LessonBatchService {
+
+    private final LessonRepository lessonRepository;
+    private final TeacherRepository teacherRepository;
+    private final StudentRepository studentRepository;
+    private final LessonSlotRepository lessonSlotRepository;
+    private final LessonScheduleIndex lessonScheduleIndex;
+    private final CoursesProperties coursesProperties;
+    private final MeterRegistry meterRegistry;
+
+    @Transactional
+    public List<LessonBatchItemDto> saveAll(List<CreateLessonCommand> commands) {
+        return persist(plan(commands));
+    }
+
+    @Transactional
+    public List<LessonBatchItemDto> saveSeries(CreateLessonSeriesCommand command) {
+        Batch batch = plan(expand(command));
+        if (command.getOnConflict() == ConflictPolicy.SKIP) {
+            return persist(batch);
+        }
+        failOnRejected(Arrays.asList(batch.results()));
+        // a slot taken concurrently is only found while persisting; failing here rolls the series back
+        return failOnRejected(persist(batch));
+    }
+
+    // all or nothing: the shifted set is checked with one query and moved with one UPDATE, so any conflict rolls it back
+    @Transactional
+    public List<LessonDto> shift(ShiftLessonsCommand command) {
+        int teacherId = command.getTeacherId();
+        LocalDateTime from = command.getFrom();
+        LocalDateTime to = command.getTo();
+        if (!from.isBefore(to)) {
+            throw new InvalidTimeWindowException("Window start must be before its end");
+        }
+        int minutes = command.getDays() * 24 * 60 + command.getMinutes();
+        if (from.plusMinutes(minutes).isBefore(LocalDateTime.now())) {
+            throw new InvalidTimeWindowException("Lessons cannot be moved into the past");
+        }
+        Teacher teacher = lockTeacher(teacherId)
+                .orElseThrow(() -> new TeacherNotFoundException(MessageFormat
+                        .format("Teacher with id={0} not found", teacherId)));
+        List<LessonDto> lessons = lessonRepository.findAllDtoByTeacherIdInRange(teacherId, from, to);
+        if (lessons.isEmpty() || minutes == 0) {
+            return lessons;
+        }
+        if (lessonRepository.countShiftConflicts(teacherId, from, to, minutes) > 0) {
+            throw new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher.");
+        }
+        lessonRepository.shiftDates(teacherId, from, to, minutes);
+        List<Lesson> shifted = lessons.stream()
+                .map(lesson -> Lesson.builder()
+                        .id(lesson.getId())
+                        .date(lesson.getDate().plusMinutes(minutes))
+                        .teacher(teacher)
+                        .build())
+                .toList();
+        lessonSlotRepository.releaseAll(lessons.stream().map(LessonDto::getId).toList());
+        if (isLockFree()) {
+            lessonSlotRepository.claimAll(shifted);
+        }
+        lessonScheduleIndex.move(teacherId, lessons.stream().map(LessonDto::getDate).toList(),
+                shifted.stream().map(Lesson::getDate).toList());
+        return lessons.stream()
+                .map(lesson -> LessonDto.builder()
+                        .id(lesson.getId())
+                        .date(lesson.getDate().plusMinutes(minutes))
+                        .teacherId(teacherId)
+                        .studentId(lesson.getStudentId())
+                        .build())
+                .toList();
+    }
+
+    private List<CreateLessonCommand> expand(CreateLessonSeriesCommand command) {
+        int interval = Optional.ofNullable(command.getInterval()).orElse(1);
+        List<CreateLessonCommand> commands = new ArrayList<>(command.getOccurrences());
+        for (int i = 0; i < command.getOccurrences(); i++) {
+            long step = (long) i * interval;
+            commands.add(CreateLessonCommand.builder()
+                    .date(command.getRecurrence() == Recurrence.DAILY
+                            ? command.getDate().plusDays(step)
+                            : command.getDate().plusWeeks(step))
+                    .teacherId(command.getTeacherId())
+                    .studentId(command.getStudentId())
+                    .build());
+        }
+        return commands;
+    }
+
+    private Batch plan(List<CreateLessonCommand> commands) {
+        LessonBatchItemDto[] results = new LessonBatchItemDto[commands.size()];
+        Map<Integer, List<Integer>> indexesByTeacher = new TreeMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            indexesByTeacher.computeIfAbsent(commands.get(i).getTeacherId(), teacherId -> new ArrayList<>()).add(i);
+        }
+        Map<Integer, Student> students = studentRepository.findAllById(commands.stream()
+                        .map(CreateLessonCommand::getStudentId)
+                        .distinct()
+                        .toList()).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
+        List<Lesson> lessons = new ArrayList<>();
+        List<Integer> lessonIndexes = new ArrayList<>();
+        indexesByTeacher.forEach((teacherId, indexes) -> {
+            Optional<Teacher> teacher = lockTeacher(teacherId);
+            if (teacher.isEmpty()) {
+                indexes.forEach(i -> results[i] = LessonBatchItemDto.rejected(i, new TeacherNotFoundException(MessageFormat
+                        .format("Teacher with id={0} not found", teacherId))));
+                return;
+            }
+            TeacherSchedule schedule = loadSchedule(teacherId, indexes.stream()
+                    .map(i -> commands.get(i).getDate())
+                    .toList());
+            for (int i : indexes) {
+                CreateLessonCommand command = commands.get(i);
+                Student student = students.get(command.getStudentId());
+                if (student == null) {
+                    results[i] = LessonBatchItemDto.rejected(i, new StudentNotFoundException(MessageFormat
+                            .format("Student with id={0} not found", command.getStudentId())));
+                } else if (schedule.overlaps(command.getDate())) {
+                    results[i] = LessonBatchItemDto.rejected(i,
+                            new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher."));
+                } else {
+                    schedule.add(command.getDate());
+                    Lesson lesson = LessonMapper.mapFromCommand(command);
+                    lesson.setTeacher(teacher.get());
+                    lesson.setStudent(student);
+                    lessons.add(lesson);
+                    lessonIndexes.add(i);
+                }
+            }
+        });
+        return new Batch(results, lessons, lessonIndexes);
+    }
+
+    private List<LessonBatchItemDto> persist(Batch batch) {
+        LessonBatchItemDto[] results = batch.results();
+        List<Lesson> saved = lessonRepository.saveAll(batch.lessons());
+        lessonRepository.flush();
+        Set<Lesson> conflicting = isLockFree() ? claimSlots(saved) : Set.of();
+        for (int i = 0; i < saved.size(); i++) {
+            Lesson lesson = saved.get(i);
+            int index = batch.lessonIndexes().get(i);
+            if (conflicting.contains(lesson)) {
+                results[index] = LessonBatchItemDto.rejected(index,
+                        new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher."));
+            } else {
+                lessonScheduleIndex.reserveChecked(lesson);
+                results[index] = LessonBatchItemDto.created(index, LessonMapper.mapToDto(lesson));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private Set<Lesson> claimSlots(List<Lesson> lessons) {
+        try {
+            lessonSlotRepository.claimAll(lessons);
+            return Set.of();
+        } catch (OverlappingLessonException e) {
+            // a concurrent booking took a slot: only the failed insert is undone, so drop the claims and retry one by one
+            lessonSlotRepository.releaseAll(lessons.stream().map(Lesson::getId).toList());
+        }
+        Set<Lesson> conflicting = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Lesson lesson : lessons) {
+            try {
+                lessonSlotRepository.claim(lesson);
+            } catch (OverlappingLessonException e) {
+                conflicting.add(lesson);
+            }
+        }
+        // slots claimed before the duplicate are removed with the lesson by the cascading foreign key
+        lessonRepository.deleteAll(conflicting);
+        lessonRepository.flush();
+        return conflicting;
+    }
+
+    private static List<LessonBatchItemDto> failOnRejected(List<LessonBatchItemDto> results) {
+        for (LessonBatchItemDto result : results) {
+            if (result != null && !result.isCreated()) {
+                throw result.getError();
+            }
+        }
+        return results;
+    }
+
+    private boolean isLockFree() {
+        return coursesProperties.getLessonSlot().isLockFree();
+    }
+
+    private Optional<Teacher> lockTeacher(int teacherId) {
+        if (isLockFree()) {
+            return teacherRepository.findById(teacherId);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String state = "SUCCESS";
+        try {
+            return teacherRepository.findWithPessimisticLockingById(teacherId);
+        } catch (PessimisticLockingFailureException e) {
+            state = "ERROR";
+            throw new TeacherLockTimeoutException("Could not acquire lock on teacher - operation timed out");
+        } finally {
+            sample.stop(meterRegistry.timer("courses.teacher.lock.wait", "state", state));
+        }
+    }
+
+    private TeacherSchedule loadSchedule(int teacherId, List<LocalDateTime> dates) {
+        LocalDateTime from = dates.stream().min(Comparator.naturalOrder()).orElseThrow().minusHours(1);
+        LocalDateTime to = dates.stream().max(Comparator.naturalOrder()).orElseThrow().plusHours(1);
+        TeacherSchedule schedule = new TeacherSchedule();
+        lessonRepository.findAllDatesByTeacherIdBetween(teacherId, from, to).forEach(schedule::add);
+        return schedule;
+    }
+
+    private record Batch(LessonBatchItemDto[] results, List<Lesson> lessons, List<Integer> lessonIndexes) {
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.Piotr7421.courses.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.repository.LessonRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Timed(value = "courses.service", histogram = true)
+public class LessonExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final LessonRepository lessonRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(OutputStream outputStream) throws IOException {
+        try (Stream<LessonDto> lessons = lessonRepository.streamAllForExport();
+             SequenceWriter writer = objectMapper.writerFor(LessonDto.class)
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(outputStream)) {
+            int written = 0;
+            Iterator<LessonDto> iterator = lessons.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                if (++written % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            if (written > 0) {
+                outputStream.write('\n');
+            }
+        }
+        outputStream.flush();
+    }
+}
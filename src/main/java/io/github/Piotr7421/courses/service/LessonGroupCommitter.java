@@ -0,0 +1,131 @@
+package io.github.Piotr7421.courses.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.dto.LessonBatchItemDto;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class LessonGroupCommitter implements DisposableBean {
+
+    private final LessonBatchService lessonBatchService;
+    private final LessonService lessonService;
+    private final CoursesProperties.GroupCommit config;
+    private final DistributionSummary groupSize;
+    private final BlockingQueue<PendingLesson> pending = new LinkedBlockingQueue<>();
+    private final Thread flusher;
+
+    public LessonGroupCommitter(LessonBatchService lessonBatchService, LessonService lessonService,
+                                CoursesProperties properties, MeterRegistry meterRegistry) {
+        this.lessonBatchService = lessonBatchService;
+        this.lessonService = lessonService;
+        this.config = properties.getGroupCommit();
+        this.groupSize = DistributionSummary.builder("courses.lesson.group.commit.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        if (config.isEnabled()) {
+            flusher = new Thread(this::run, "lesson-group-commit");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return flusher != null;
+    }
+
+    public CompletableFuture<LessonDto> submit(CreateLessonCommand command) {
+        PendingLesson lesson = new PendingLesson(command, new CompletableFuture<>());
+        pending.add(lesson);
+        return lesson.result();
+    }
+
+    @Override
+    public void destroy() {
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+        List<PendingLesson> abandoned = new ArrayList<>();
+        pending.drainTo(abandoned);
+        fail(abandoned, new IllegalStateException("Lesson group commit is shutting down"));
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PendingLesson> group = new ArrayList<>();
+            try {
+                collect(group);
+                flush(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(group, new IllegalStateException("Lesson group commit is shutting down"));
+            } catch (Throwable e) {
+                // this is the only flusher thread; if it died, every later booking would wait forever
+                fail(group, e);
+            }
+        }
+    }
+
+    // blocks for the first request, then collects until the window closes or the group is full
+    private void collect(List<PendingLesson> group) throws InterruptedException {
+        group.add(pending.take());
+        long deadline = System.nanoTime() + config.getWindow().toNanos();
+        while (group.size() < config.getMaxItems()) {
+            PendingLesson next = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+    }
+
+    void flush(List<PendingLesson> group) {
+        groupSize.record(group.size());
+        List<LessonBatchItemDto> results;
+        try {
+            results = lessonBatchService.saveAll(group.stream()
+                    .map(PendingLesson::command)
+                    .toList());
+        } catch (RuntimeException e) {
+            // a failure of the shared transaction must not fail every caller, so each lesson gets its own attempt
+            group.forEach(this::saveAlone);
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            LessonBatchItemDto result = results.get(i);
+            if (result.isCreated()) {
+                group.get(i).result().complete(result.getLesson());
+            } else {
+                group.get(i).result().completeExceptionally(result.getError());
+            }
+        }
+    }
+
+    private void saveAlone(PendingLesson lesson) {
+        try {
+            lesson.result().complete(lessonService.save(lesson.command()));
+        } catch (RuntimeException e) {
+            lesson.result().completeExceptionally(e);
+        }
+    }
+
+    private static void fail(List<PendingLesson> group, Throwable cause) {
+        group.forEach(lesson -> lesson.result().completeExceptionally(cause));
+    }
+
+    record PendingLesson(CreateLessonCommand command, CompletableFuture<LessonDto> result) {
+    }
+}
@@ -1,10 +1,17 @@
 package io.github.Piotr7421.courses.service;
 
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import io.github.Piotr7421.courses.common.Cursor;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.InvalidCursorException;
 import io.github.Piotr7421.courses.exception.LessonAlreadyStartedException;
 import io.github.Piotr7421.courses.exception.LessonNotFoundException;
 import io.github.Piotr7421.courses.exception.OverlappingLessonException;
@@ -12,37 +19,92 @@ import io.github.Piotr7421.courses.exception.StudentNotFoundException;
 import io.github.Piotr7421.courses.exception.TeacherLockTimeoutException;
 import io.github.Piotr7421.courses.exception.TeacherNotFoundException;
 import io.github.Piotr7421.courses.mapper.LessonMapper;
+import io.github.Piotr7421.courses.mapper.PageMapper;
 import io.github.Piotr7421.courses.model.Lesson;
 import io.github.Piotr7421.courses.model.Student;
 import io.github.Piotr7421.courses.model.Teacher;
 import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
 import io.github.Piotr7421.courses.model.command.UpdateLessonCommand;
 import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.model.dto.PageDto;
+import io.github.Piotr7421.courses.model.projection.CollectionVersion;
+import io.github.Piotr7421.courses.model.projection.Versioned;
 import io.github.Piotr7421.courses.repository.LessonRepository;
+import io.github.Piotr7421.courses.repository.LessonSlotRepository;
 import io.github.Piotr7421.courses.repository.StudentRepository;
 import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.LessonScheduleIndex;
+import io.github.Piotr7421.courses.schedule.TeacherMailbox;
 
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "courses.service", histogram = true)
 public class LessonService {
 
     private final LessonRepository lessonRepository;
     private final TeacherRepository teacherRepository;
     private final StudentRepository studentRepository;
+    private final LessonSlotRepository lessonSlotRepository;
+    private final LessonScheduleIndex lessonScheduleIndex;
+    private final TeacherMailbox teacherMailbox;
+    private final CoursesProperties coursesProperties;
+    private final MeterRegistry meterRegistry;
 
+    @Transactional(readOnly = true)
     public List<LessonDto> findAll() {
-        return lessonRepository.findAll().stream()
-                .map(LessonMapper::mapToDto)
-                .toList();
+        return lessonRepository.findAllAsDto();
     }
 
+    @Transactional(readOnly = true)
+    public List<Versioned<LessonDto>> findAllVersioned() {
+        return lessonRepository.findAllVersioned();
+    }
+
+    @Transactional(readOnly = true)
+    public CollectionVersion findCollectionVersion() {
+        return lessonRepository.findCollectionVersion();
+    }
+
+    @Transactional(readOnly = true)
+    public PageDto<LessonDto> findPage(int limit, String after) {
+        Limit rows = Limit.of(limit + 1);
+        List<LessonDto> lessons;
+        if (after == null) {
+            lessons = lessonRepository.findDtoPage(rows);
+        } else {
+            Cursor cursor = Cursor.decode(after);
+            if (cursor.date() == null) {
+                throw new InvalidCursorException("Invalid page cursor");
+            }
+            lessons = lessonRepository.findDtoPageAfter(cursor.date(), cursor.id(), rows);
+        }
+        return PageMapper.mapToPage(lessons, limit, Function.identity(),
+                lesson -> Cursor.of(lesson.getDate(), lesson.getId()));
+    }
+
+    @Transactional(readOnly = true)
     public LessonDto findById(int id) {
-        return lessonRepository.findById(id)
-                .map(LessonMapper::mapToDto)
+        return lessonRepository.findDtoById(id)
+                .orElseThrow(() -> new LessonNotFoundException(MessageFormat
+                        .format("Lesson with id={0} not found", id)));
+    }
+
+    @Transactional(readOnly = true)
+    public Versioned<LessonDto> findVersionedById(int id) {
+        return lessonRepository.findVersionedById(id)
+                .orElseThrow(() -> new LessonNotFoundException(MessageFormat
+                        .format("Lesson with id={0} not found", id)));
+    }
+
+    @Transactional(readOnly = true)
+    public int findVersion(int id) {
+        return lessonRepository.findVersionById(id)
                 .orElseThrow(() -> new LessonNotFoundException(MessageFormat
                         .format("Lesson with id={0} not found", id)));
     }
@@ -52,17 +114,8 @@ public class LessonService {
         int teacherId = command.getTeacherId();
         int studentId = command.getStudentId();
         Lesson lesson = LessonMapper.mapFromCommand(command);
-        Teacher teacher;
-        try {
-            teacher = teacherRepository.findWithPessimisticLockingById(teacherId)
-                    .orElseThrow(() -> new TeacherNotFoundException(MessageFormat
-                            .format("Teacher with id={0} not found", teacherId)));
-        } catch (PessimisticLockingFailureException e) {
-            throw new TeacherLockTimeoutException("Could not acquire lock on teacher - operation timed out");
-        }
-        LocalDateTime dateMinusHour = lesson.getDate().minusHours(1);
-        LocalDateTime datePlusHour = lesson.getDate().plusHours(1);
-        if (lessonRepository.existsByTeacherAndDateAfterAndDateBefore(teacher, dateMinusHour, datePlusHour)) {
+        Teacher teacher = findTeacher(teacherId);
+        if (overlaps(teacher, lesson.getDate())) {
             throw new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher.");
         }
         Student student = studentRepository.findById(studentId)
@@ -70,7 +123,13 @@ public class LessonService {
                         .format("Student with id={0} not found", studentId)));
         lesson.setTeacher(teacher);
         lesson.setStudent(student);
-        return LessonMapper.mapToDto(lessonRepository.save(lesson));
+        Lesson saved = lessonRepository.save(lesson);
+        lessonRepository.flush();
+        if (isLockFree()) {
+            lessonSlotRepository.claim(saved);
+        }
+        lessonScheduleIndex.reserve(saved);
+        return LessonMapper.mapToDto(saved);
     }
 
     @Transactional
@@ -79,22 +138,20 @@ public class LessonService {
                 .orElseThrow(() -> new LessonNotFoundException(MessageFormat
                         .format("Lesson with id={0} not found", id)));
         int teacherId = existingLesson.getTeacher().getId();
-        Teacher teacher;
-        try {
-            teacher = teacherRepository.findWithPessimisticLockingById(teacherId)
-                    .orElseThrow(() -> new TeacherNotFoundException(MessageFormat
-                            .format("Teacher with id={0} not found", teacherId)));
-        } catch (PessimisticLockingFailureException e) {
-            throw new TeacherLockTimeoutException("Could not acquire lock on teacher - operation timed out");
-        }
+        Teacher teacher = findTeacher(teacherId);
         LocalDateTime newDate = command.getDate();
-        LocalDateTime dateMinusHour = newDate.minusHours(1);
-        LocalDateTime datePlusHour = newDate.plusHours(1);
-        if (lessonRepository.existsByTeacherAndDateAfterAndDateBefore(teacher, dateMinusHour, datePlusHour)) {
+        if (overlaps(teacher, newDate)) {
             throw new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher.");
         }
+        lessonScheduleIndex.release(teacherId, existingLesson.getDate());
         existingLesson.setDate(newDate);
-        return LessonMapper.mapToDto(lessonRepository.saveAndFlush(existingLesson));
+        Lesson saved = lessonRepository.saveAndFlush(existingLesson);
+        lessonSlotRepository.release(saved.getId());
+        if (isLockFree()) {
+            lessonSlotRepository.claim(saved);
+        }
+        lessonScheduleIndex.reserve(saved);
+        return LessonMapper.mapToDto(saved);
     }
 
     @Transactional
@@ -102,6 +159,41 @@ public class LessonService {
         if (lessonRepository.existsByIdAndDateBefore(id, LocalDateTime.now())) {
             throw new LessonAlreadyStartedException("Deletion of a started lesson is forbidden");
         }
+        lessonRepository.findById(id)
+                .ifPresent(lesson -> lessonScheduleIndex.release(lesson.getTeacher().getId(), lesson.getDate()));
         lessonRepository.deleteById(id);
     }
+
+    private Teacher findTeacher(int teacherId) {
+        if (isLockFree() || teacherMailbox.isWriter(teacherId)) {
+            return teacherRepository.findById(teacherId)
+                    .orElseThrow(() -> new TeacherNotFoundException(MessageFormat
+                            .format("Teacher with id={0} not found", teacherId)));
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String state = "SUCCESS";
+        Optional<Teacher> teacher;
+        try {
+            teacher = teacherRepository.findWithPessimisticLockingById(teacherId);
+        } catch (PessimisticLockingFailureException e) {
+            state = "ERROR";
+            throw new TeacherLockTimeoutException("Could not acquire lock on teacher - operation timed out");
+        } finally {
+            sample.stop(meterRegistry.timer("courses.teacher.lock.wait", "state", state));
+        }
+        return teacher.orElseThrow(() -> new TeacherNotFoundException(MessageFormat
+                .format("Teacher with id={0} not found", teacherId)));
+    }
+
+    // slots are claimed only without the teacher lock: they need starts on the grid, the lock does not
+    private boolean isLockFree() {
+        return coursesProperties.getLessonSlot().isLockFree();
+    }
+
+    private boolean overlaps(Teacher teacher, LocalDateTime date) {
+        if (lessonScheduleIndex.isEnabled()) {
+            return lessonScheduleIndex.overlaps(teacher.getId(), date);
+        }
+        return lessonRepository.existsByTeacherAndDateAfterAndDateBefore(teacher, date.minusHours(1), date.plusHours(1));
+    }
 }
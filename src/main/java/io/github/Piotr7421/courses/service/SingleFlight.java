@@ -0,0 +1,71 @@
+package io.github.Piotr7421.courses.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.config.ReplicaRoutingDataSource;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Component
+public class SingleFlight {
+
+    private final Set<String> entities;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlight(CoursesProperties properties, MeterRegistry meterRegistry) {
+        this.entities = Set.copyOf(properties.getSingleFlight().getEntities());
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled(String entity) {
+        return entities.contains(entity);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String entity, String key, Supplier<T> loader) {
+        // a client that has just written must not join a flight that may have read before its commit
+        if (!isEnabled(entity) || ReplicaRoutingDataSource.isPinnedToPrimary()) {
+            return loader.get();
+        }
+        String id = entity + ":" + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(id, flight);
+        if (running != null) {
+            count(entity, "coalesced");
+            return (T) join(running);
+        }
+        count(entity, "leader");
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, flight);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void count(String entity, String result) {
+        meterRegistry.counter("courses.singleflight.calls", "entity", entity, "result", result).increment();
+    }
+}
@@ -1,46 +1,96 @@
 package io.github.Piotr7421.courses.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import io.github.Piotr7421.courses.common.Cursor;
 import io.github.Piotr7421.courses.exception.DatabaseConstraintException;
 import io.github.Piotr7421.courses.exception.StudentNotFoundException;
 import io.github.Piotr7421.courses.exception.StudentOptimisticLockException;
 import io.github.Piotr7421.courses.exception.TeacherLockTimeoutException;
 import io.github.Piotr7421.courses.exception.TeacherNotFoundException;
+import io.github.Piotr7421.courses.mapper.PageMapper;
 import io.github.Piotr7421.courses.mapper.StudentMapper;
 import io.github.Piotr7421.courses.model.Student;
 import io.github.Piotr7421.courses.model.Teacher;
 import io.github.Piotr7421.courses.model.command.CreateStudentCommand;
+import io.github.Piotr7421.courses.model.command.ReassignStudentCommand;
+import io.github.Piotr7421.courses.model.command.ReassignStudentsCommand;
 import io.github.Piotr7421.courses.model.command.UpdateStudentCommand;
+import io.github.Piotr7421.courses.model.dto.PageDto;
 import io.github.Piotr7421.courses.model.dto.StudentDto;
+import io.github.Piotr7421.courses.model.dto.StudentReassignmentDto;
+import io.github.Piotr7421.courses.model.projection.CollectionVersion;
+import io.github.Piotr7421.courses.model.projection.Versioned;
+import io.github.Piotr7421.courses.repository.StudentReassignmentRepository;
 import io.github.Piotr7421.courses.repository.StudentRepository;
 import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.TeacherMailbox;
 import io.github.Piotr7421.courses.validator.TeacherLanguageValidator;
 
 import java.text.MessageFormat;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "courses.service", histogram = true)
 public class StudentService {
 
     private final StudentRepository studentRepository;
     private final TeacherRepository teacherRepository;
     private final TeacherLanguageValidator teacherLanguageValidator;
+    private final TeacherMailbox teacherMailbox;
+    private final StudentReassignmentRepository studentReassignmentRepository;
+    private final MeterRegistry meterRegistry;
 
+    @Transactional(readOnly = true)
     public List<StudentDto> findAll() {
-        return studentRepository.findAll().stream()
-                .map(StudentMapper::mapToDto)
-                .toList();
+        return studentRepository.findAllAsDto();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Versioned<StudentDto>> findAllVersioned() {
+        return studentRepository.findAllVersioned();
+    }
+
+    @Transactional(readOnly = true)
+    public CollectionVersion findCollectionVersion() {
+        return studentRepository.findCollectionVersion();
+    }
+
+    @Transactional(readOnly = true)
+    public PageDto<StudentDto> findPage(int limit, String after) {
+        int afterId = after == null ? 0 : Cursor.decode(after).id();
+        return PageMapper.mapToPage(studentRepository.findDtoPageAfter(afterId, Limit.of(limit + 1)),
+                limit, Function.identity(), student -> Cursor.of(student.getId()));
     }
 
+    @Transactional(readOnly = true)
     public StudentDto findById(int id) {
-        return studentRepository.findById(id)
-                .map(StudentMapper::mapToDto)
+        return studentRepository.findDtoById(id)
+                .orElseThrow(() -> new StudentNotFoundException(MessageFormat
+                        .format("Student with id={0} not found", id)));
+    }
+
+    @Transactional(readOnly = true)
+    public Versioned<StudentDto> findVersionedById(int id) {
+        return studentRepository.findVersionedById(id)
+                .orElseThrow(() -> new StudentNotFoundException(MessageFormat
+                        .format("Student with id={0} not found", id)));
+    }
+
+    @Transactional(readOnly = true)
+    public int findVersion(int id) {
+        return studentRepository.findVersionById(id)
                 .orElseThrow(() -> new StudentNotFoundException(MessageFormat
                         .format("Student with id={0} not found", id)));
     }
@@ -48,14 +98,9 @@ public class StudentService {
     @Transactional
     public StudentDto create(CreateStudentCommand command) {
         int teacherId = command.getTeacherId();
-        Teacher teacher;
-        try {
-            teacher = teacherRepository.findWithPessimisticLockingById(teacherId)
-                    .orElseThrow(() -> new TeacherNotFoundException((MessageFormat
-                            .format("Teacher with id={0} not found", teacherId))));
-        } catch (PessimisticLockingFailureException e) {
-            throw new TeacherLockTimeoutException("Could not acquire lock on teacher - operation timed out");
-        }
+        Teacher teacher = lockTeacher(teacherId)
+                .orElseThrow(() -> new TeacherNotFoundException((MessageFormat
+                        .format("Teacher with id={0} not found", teacherId))));
         Student student = StudentMapper.mapFromCommand(command);
         teacherLanguageValidator.validateTeacherLanguage(teacher, student);
         student.setTeacher(teacher);
@@ -69,14 +114,11 @@ public class StudentService {
     @Transactional
     public StudentDto update(int id, UpdateStudentCommand command) {
         int teacherId = command.getTeacherId();
-        Teacher teacher;
-        try {
-            teacher = teacherRepository.findWithPessimisticLockingById(teacherId)
-                    .orElseThrow(() -> new TeacherNotFoundException(MessageFormat
-                            .format("Teacher with id={0} not found", teacherId)));
-        } catch (PessimisticLockingFailureException e) {
-            throw new TeacherLockTimeoutException("Could not acquire lock on teacher - operation timed out");
-        }
+        Teacher teacher = (teacherMailbox.isWriter(teacherId)
+                ? teacherRepository.findById(teacherId)
+                : lockTeacher(teacherId))
+                .orElseThrow(() -> new TeacherNotFoundException(MessageFormat
+                        .format("Teacher with id={0} not found", teacherId)));
         Student student = studentRepository.findWithLockingById(id)
                 .orElseThrow(() -> new StudentNotFoundException(MessageFormat
                         .format("Student with id={0} not found", id)));
@@ -91,31 +133,39 @@ public class StudentService {
         }
     }
 
+    @Transactional
+    public StudentReassignmentDto reassign(ReassignStudentsCommand command) {
+        int teacherId = command.getTeacherId();
+        Teacher teacher = lockTeacher(teacherId)
+                .orElseThrow(() -> new TeacherNotFoundException(MessageFormat
+                        .format("Teacher with id={0} not found", teacherId)));
+        List<Integer> ids = command.getStudents().stream()
+                .map(ReassignStudentCommand::getId)
+                .toList();
+        teacherLanguageValidator.validateTeacherLanguages(teacher, ids);
+        List<Integer> failed = studentReassignmentRepository.reassign(teacherId, command.getStudents());
+        return StudentReassignmentDto.builder()
+                .teacherId(teacherId)
+                .reassignedIds(ids.stream().filter(id -> !failed.contains(id)).toList())
+                .failedIds(failed)
+                .build();
+    }
+
     @Transactional
     public void deleteById(int id) {
         studentRepository.deleteById(id);
     }
-}
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
 
+    private Optional<Teacher> lockTeacher(int teacherId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String state = "SUCCESS";
+        try {
+            return teacherRepository.findWithPessimisticLockingById(teacherId);
+        } catch (PessimisticLockingFailureException e) {
+            state = "ERROR";
+            throw new TeacherLockTimeoutException("Could not acquire lock on teacher - operation timed out");
+        } finally {
+            sample.stop(meterRegistry.timer("courses.teacher.lock.wait", "state", state));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.Piotr7421.courses.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.exception.InvalidTimeWindowException;
+import io.github.Piotr7421.courses.exception.TeacherNotFoundException;
+import io.github.Piotr7421.courses.mapper.TeacherMapper;
+import io.github.Piotr7421.courses.model.converter.LanguageSetConverter;
+import io.github.Piotr7421.courses.model.dto.FreeSlotDto;
+import io.github.Piotr7421.courses.model.dto.TeacherDto;
+import io.github.Piotr7421.courses.repository.LessonRepository;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.TeacherLanguageIndex;
+
+import java.text.MessageFormat;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Timed(value = "courses.service", histogram = true)
+public class TeacherAvailabilityService {
+
+    private static final Duration LESSON_LENGTH = Duration.ofHours(1);
+
+    private final TeacherRepository teacherRepository;
+    private final LessonRepository lessonRepository;
+    private final TeacherLanguageIndex teacherLanguageIndex;
+
+    @Transactional(readOnly = true)
+    public List<FreeSlotDto> findFreeSlots(int teacherId, LocalDateTime from, LocalDateTime to, int durationMinutes) {
+        if (!from.isBefore(to)) {
+            throw new InvalidTimeWindowException("Window start must be before its end");
+        }
+        if (teacherRepository.findById(teacherId).isEmpty()) {
+            throw new TeacherNotFoundException(MessageFormat
+                    .format("Teacher with id={0} not found", teacherId));
+        }
+        List<LocalDateTime> starts = lessonRepository.findAllDatesByTeacherIdBetween(teacherId, from.minus(LESSON_LENGTH), to);
+        return sweep(starts, from, to, Duration.ofMinutes(durationMinutes));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TeacherDto> findAvailableTeachers(Language language, LocalDateTime date) {
+        if (!teacherLanguageIndex.isEnabled()) {
+            return teacherRepository.findAllByLanguageMasks(LanguageSetConverter.masksContaining(language)).stream()
+                    .filter(teacher -> !lessonRepository.existsByTeacherAndDateAfterAndDateBefore(teacher,
+                            date.minus(LESSON_LENGTH), date.plus(LESSON_LENGTH)))
+                    .map(TeacherMapper::mapToDto)
+                    .toList();
+        }
+        return teacherLanguageIndex.findAvailable(language, date);
+    }
+
+    // starts must be sorted; each lesson occupies [start, start + 1h) as in LessonService.save
+    static List<FreeSlotDto> sweep(List<LocalDateTime> starts, LocalDateTime from, LocalDateTime to, Duration duration) {
+        List<FreeSlotDto> slots = new ArrayList<>();
+        LocalDateTime free = from;
+        for (LocalDateTime start : starts) {
+            if (!free.plus(duration).isAfter(start)) {
+                slots.add(new FreeSlotDto(free, start));
+            }
+            LocalDateTime end = start.plus(LESSON_LENGTH);
+            if (end.isAfter(free)) {
+                free = end;
+            }
+        }
+        if (!free.plus(duration).isAfter(to)) {
+            slots.add(new FreeSlotDto(free, to));
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.Piotr7421.courses.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.command.UpdateLessonCommand;
+import io.github.Piotr7421.courses.model.command.UpdateStudentCommand;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.model.dto.StudentDto;
+import io.github.Piotr7421.courses.schedule.TeacherMailbox;
+
+import java.util.concurrent.CompletableFuture;
+
+@Service
+@RequiredArgsConstructor
+@Timed(value = "courses.service", histogram = true)
+public class TeacherCommandGateway {
+
+    private final TeacherMailbox teacherMailbox;
+    private final LessonService lessonService;
+    private final StudentService studentService;
+    private final LessonGroupCommitter lessonGroupCommitter;
+
+    public CompletableFuture<LessonDto> createLesson(CreateLessonCommand command) {
+        if (lessonGroupCommitter.isEnabled()) {
+            return lessonGroupCommitter.submit(command);
+        }
+        return teacherMailbox.submit(command.getTeacherId(), () -> lessonService.save(command));
+    }
+
+    public CompletableFuture<LessonDto> updateLesson(int id, UpdateLessonCommand command) {
+        if (!teacherMailbox.isEnabled()) {
+            return CompletableFuture.completedFuture(lessonService.update(id, command));
+        }
+        int teacherId = lessonService.findById(id).getTeacherId();
+        return teacherMailbox.submit(teacherId, () -> lessonService.update(id, command));
+    }
+
+    public CompletableFuture<StudentDto> updateStudent(int id, UpdateStudentCommand command) {
+        return teacherMailbox.submit(command.getTeacherId(), () -> studentService.update(id, command));
+    }
+}
@@ -1,38 +1,77 @@
 package io.github.Piotr7421.courses.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import io.github.Piotr7421.courses.common.Cursor;
+import io.github.Piotr7421.courses.common.Language;
 import io.github.Piotr7421.courses.exception.DatabaseConstraintException;
 import io.github.Piotr7421.courses.exception.TeacherHasStudentsException;
 import io.github.Piotr7421.courses.exception.TeacherNotFoundException;
 import io.github.Piotr7421.courses.exception.TeacherOptimisticLockException;
+import io.github.Piotr7421.courses.mapper.PageMapper;
 import io.github.Piotr7421.courses.mapper.TeacherMapper;
 import io.github.Piotr7421.courses.model.Teacher;
 import io.github.Piotr7421.courses.model.command.CreateTeacherCommand;
 import io.github.Piotr7421.courses.model.command.UpdateTeacherCommand;
+import io.github.Piotr7421.courses.model.converter.LanguageSetConverter;
+import io.github.Piotr7421.courses.model.dto.PageDto;
 import io.github.Piotr7421.courses.model.dto.TeacherDto;
+import io.github.Piotr7421.courses.model.projection.CollectionVersion;
+import io.github.Piotr7421.courses.model.projection.Versioned;
 import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.LessonScheduleIndex;
+import io.github.Piotr7421.courses.schedule.TeacherLanguageIndex;
 import io.github.Piotr7421.courses.validator.TeacherLanguageValidator;
 
 import java.text.MessageFormat;
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "courses.service", histogram = true)
 public class TeacherService {
 
     private final TeacherRepository teacherRepository;
     private final TeacherLanguageValidator teacherLanguageValidator;
+    private final TeacherLanguageIndex teacherLanguageIndex;
+    private final LessonScheduleIndex lessonScheduleIndex;
 
+    @Transactional(readOnly = true)
     public List<TeacherDto> findAll() {
-        return teacherRepository.findAll().stream()
+        return teacherRepository.findAllAsDto();
+    }
+
+    @Transactional(readOnly = true)
+    public List<Versioned<TeacherDto>> findAllVersioned() {
+        return teacherRepository.findAllVersioned();
+    }
+
+    @Transactional(readOnly = true)
+    public CollectionVersion findCollectionVersion() {
+        return teacherRepository.findCollectionVersion();
+    }
+
+    @Transactional(readOnly = true)
+    public List<TeacherDto> findAllByLanguage(Language language) {
+        return teacherRepository.findAllByLanguageMasks(LanguageSetConverter.masksContaining(language)).stream()
                 .map(TeacherMapper::mapToDto)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
+    public PageDto<TeacherDto> findPage(int limit, String after) {
+        int afterId = after == null ? 0 : Cursor.decode(after).id();
+        return PageMapper.mapToPage(teacherRepository.findDtoPageAfter(afterId, Limit.of(limit + 1)),
+                limit, Function.identity(), teacher -> Cursor.of(teacher.getId()));
+    }
+
+    @Transactional(readOnly = true)
     public TeacherDto findById(int id) {
         return teacherRepository.findById(id)
                 .map(TeacherMapper::mapToDto)
@@ -40,11 +79,32 @@ public class TeacherService {
                         .format("Teacher with id={0} not found", id)));
     }
 
+    @Transactional(readOnly = true)
+    public Versioned<TeacherDto> findVersionedById(int id) {
+        return teacherRepository.findById(id)
+                .map(teacher -> new Versioned<>(teacher.getId(), teacher.getVersion(), TeacherMapper.mapToDto(teacher)))
+                .orElseThrow(() -> new TeacherNotFoundException(MessageFormat
+                        .format("Teacher with id={0} not found", id)));
+    }
+
+    // served from the second-level cache, so a conditional GET usually costs no statement at all
+    @Transactional(readOnly = true)
+    public int findVersion(int id) {
+        return teacherRepository.findById(id)
+                .map(Teacher::getVersion)
+                .orElseThrow(() -> new TeacherNotFoundException(MessageFormat
+                        .format("Teacher with id={0} not found", id)));
+    }
+
     @Transactional
     public TeacherDto create(CreateTeacherCommand command) {
         Teacher toSave = TeacherMapper.mapFromCommand(command);
         try {
-            return TeacherMapper.mapToDto(teacherRepository.save(toSave));
+            Teacher saved = teacherRepository.save(toSave);
+            lessonScheduleIndex.register(saved.getId());
+            TeacherDto created = TeacherMapper.mapToDto(saved);
+            teacherLanguageIndex.put(created);
+            return created;
         } catch (DataIntegrityViolationException e) {
             throw new DatabaseConstraintException("Violation of integrity constraints while teacher insertion to the database");
         }
@@ -58,7 +118,10 @@ public class TeacherService {
         teacher.setLanguages(command.getLanguages());
         teacherLanguageValidator.validateTeacherLanguages(teacher);
         try {
-            return TeacherMapper.mapToDto(teacherRepository.saveAndFlush(teacher));
+            Teacher saved = teacherRepository.saveAndFlush(teacher);
+            TeacherDto updated = TeacherMapper.mapToDto(saved);
+            teacherLanguageIndex.put(updated);
+            return updated;
         } catch (DataIntegrityViolationException e) {
             throw new DatabaseConstraintException("Violation of integrity constraints while teacher update to the database");
         } catch (OptimisticLockingFailureException e) {
@@ -76,6 +139,7 @@ public class TeacherService {
                     .format("Teacher with id={0} has students.", id));
         }
         teacherRepository.deleteById(id);
+        teacherLanguageIndex.remove(id);
     }
 }
 
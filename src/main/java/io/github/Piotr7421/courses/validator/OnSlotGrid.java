@@ -0,0 +1,22 @@
+package io.github.Piotr7421.courses.validator;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// only enforced with courses.lesson-slot.lock-free, the one mode that guards bookings with slot claims
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = {OnSlotGridDateValidator.class, OnSlotGridMinutesValidator.class})
+public @interface OnSlotGrid {
+
+    String message() default "OFF_SLOT_GRID";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,21 @@
+package io.github.Piotr7421.courses.validator;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import lombok.RequiredArgsConstructor;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.repository.LessonSlotRepository;
+
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class OnSlotGridDateValidator implements ConstraintValidator<OnSlotGrid, LocalDateTime> {
+
+    private final CoursesProperties properties;
+
+    @Override
+    public boolean isValid(LocalDateTime date, ConstraintValidatorContext context) {
+        return date == null || !properties.getLessonSlot().isLockFree()
+                || date.getMinute() % LessonSlotRepository.SLOT_MINUTES == 0;
+    }
+}
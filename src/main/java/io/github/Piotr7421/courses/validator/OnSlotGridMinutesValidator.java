@@ -0,0 +1,19 @@
+package io.github.Piotr7421.courses.validator;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import lombok.RequiredArgsConstructor;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.repository.LessonSlotRepository;
+
+@RequiredArgsConstructor
+public class OnSlotGridMinutesValidator implements ConstraintValidator<OnSlotGrid, Integer> {
+
+    private final CoursesProperties properties;
+
+    @Override
+    public boolean isValid(Integer minutes, ConstraintValidatorContext context) {
+        return minutes == null || !properties.getLessonSlot().isLockFree()
+                || minutes % LessonSlotRepository.SLOT_MINUTES == 0;
+    }
+}
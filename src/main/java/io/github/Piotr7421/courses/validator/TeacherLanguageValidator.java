@@ -2,13 +2,18 @@ package io.github.Piotr7421.courses.validator;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import io.github.Piotr7421.courses.common.Language;
 import io.github.Piotr7421.courses.exception.IncompatibleTeacherLanguageException;
 import io.github.Piotr7421.courses.model.Student;
 import io.github.Piotr7421.courses.model.Teacher;
 import io.github.Piotr7421.courses.repository.StudentRepository;
 
 import java.text.MessageFormat;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 @RequiredArgsConstructor
@@ -17,8 +22,17 @@ public class TeacherLanguageValidator {
     private final StudentRepository studentRepository;
 
     public void validateTeacherLanguages(Teacher teacher) {
-        Set<Student> students = studentRepository.findAllByTeacherId(teacher.getId());
-        students.forEach(student -> validateTeacherLanguage(teacher, student));
+        Set<Language> unsupported = unsupportedLanguages(teacher);
+        if (!unsupported.isEmpty()) {
+            reject(teacher, studentRepository.findDistinctLanguagesByTeacherIdAndLanguageIn(teacher.getId(), unsupported));
+        }
+    }
+
+    public void validateTeacherLanguages(Teacher teacher, Collection<Integer> studentIds) {
+        Set<Language> unsupported = unsupportedLanguages(teacher);
+        if (!unsupported.isEmpty()) {
+            reject(teacher, studentRepository.findDistinctLanguagesByIdInAndLanguageIn(studentIds, unsupported));
+        }
     }
 
     public void validateTeacherLanguage(Teacher teacher, Student student) {
@@ -28,4 +42,20 @@ public class TeacherLanguageValidator {
                             teacher.getId(), student.getLanguage()));
         }
     }
+
+    private static Set<Language> unsupportedLanguages(Teacher teacher) {
+        return teacher.getLanguages().isEmpty()
+                ? EnumSet.allOf(Language.class)
+                : EnumSet.complementOf(EnumSet.copyOf(teacher.getLanguages()));
+    }
+
+    private static void reject(Teacher teacher, List<Language> offending) {
+        if (!offending.isEmpty()) {
+            throw new IncompatibleTeacherLanguageException(MessageFormat
+                    .format("Incompatible teacher language, teacher id={0}, language={1}",
+                            teacher.getId(), EnumSet.copyOf(offending).stream()
+                                    .map(Language::name)
+                                    .collect(Collectors.joining(", "))));
+        }
+    }
 }
@@ -0,0 +1,175 @@
+package io.github.Piotr7421.courses.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.model.command.CreateTeacherCommand;
+import io.github.Piotr7421.courses.repository.StudentRepository;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.LessonScheduleIndex;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:courses_primary;MODE=MySQL",
+        "courses.read-replica.enabled=true",
+        "courses.read-replica.primary-after-write=30s",
+        "courses.read-replica.datasources[0].url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "courses.read-replica.datasources[0].username=sa",
+        "courses.read-replica.datasources[0].password=password"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:courses_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private LessonScheduleIndex lessonScheduleIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "password"));
+
+    @TestConfiguration
+    static class ReplicaSchema {
+
+        // a real replica gets its schema through replication; here it is migrated like the primary
+        @Bean
+        InitializingBean replicaSchemaMigration() {
+            return () -> {
+                SpringLiquibase liquibase = new SpringLiquibase();
+                liquibase.setDataSource(new DriverManagerDataSource(REPLICA_URL, "sa", "password"));
+                liquibase.setChangeLog("classpath:db/db.changelog-master.xml");
+                liquibase.setResourceLoader(new DefaultResourceLoader());
+                liquibase.setDropFirst(true);
+                liquibase.afterPropertiesSet();
+            };
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        replica.update("insert into teacher (id, first_name, last_name, languages, active, version) values (100, 'Ola', 'Replica', 1, true, 0)");
+        replica.update("insert into student (id, first_name, last_name, language, teacher_id, active, version) "
+                + "values (100, 'Jan', 'Replica', 'JAVA', 100, true, 0)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.update("delete from lesson");
+        replica.update("delete from student");
+        replica.update("delete from teacher");
+        studentRepository.deleteAll();
+        teacherRepository.deleteAll();
+    }
+
+    @Test
+    void readOnlyRequest_ShouldBeServedByReplica() throws Exception {
+        mockMvc.perform(get("/api/v1/students"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].lastName").value("Replica"));
+    }
+
+    @Test
+    void write_ShouldGoToPrimaryAndPinFollowingReadsToPrimary() throws Exception {
+        CreateTeacherCommand command = CreateTeacherCommand.builder()
+                .firstName("Anna")
+                .lastName("Primary")
+                .languages(Set.of(Language.JAVA))
+                .build();
+
+        Cookie pin = mockMvc.perform(post("/api/v1/teachers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE_NAME))
+                .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+        assertThat(teacherRepository.count()).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from teacher", Integer.class)).isEqualTo(1);
+        mockMvc.perform(get("/api/v1/students").cookie(pin))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/api/v1/students"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void expiredPin_ShouldReadFromReplicaAgain() throws Exception {
+        Cookie expired = new Cookie(ReadYourWritesFilter.COOKIE_NAME, String.valueOf(System.currentTimeMillis() - 1));
+
+        mockMvc.perform(get("/api/v1/students").cookie(expired))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastName").value("Replica"));
+    }
+
+    @Test
+    void scheduleIndex_WhenFirstLoadedInReadOnlyTransaction_ShouldReadLessonsFromPrimary() {
+        LocalDateTime date = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+        primary.update("insert into teacher (id, first_name, last_name, languages, active, version) values (200, 'Ewa', 'Primary', 1, true, 0)");
+        primary.update("insert into student (id, first_name, last_name, language, teacher_id, active, version) "
+                + "values (200, 'Adam', 'Primary', 'JAVA', 200, true, 0)");
+        primary.update("insert into lesson (id, date, teacher_id, student_id, version) values (200, ?, 200, 200, 0)",
+                Timestamp.valueOf(date));
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Boolean overlaps = readOnly.execute(status -> {
+            assertThat(teacherRepository.count()).isEqualTo(1);
+            return lessonScheduleIndex.overlaps(200, date);
+        });
+
+        assertThat(overlaps).isTrue();
+    }
+}
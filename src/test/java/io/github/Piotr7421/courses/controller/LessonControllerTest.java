@@ -1,36 +1,65 @@
 package io.github.Piotr7421.courses.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import io.github.Piotr7421.courses.common.ConflictPolicy;
 import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.common.Recurrence;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.mapper.LessonMapper;
 import io.github.Piotr7421.courses.model.Lesson;
 import io.github.Piotr7421.courses.model.Student;
 import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.model.command.CreateLessonBatchCommand;
 import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.command.CreateLessonSeriesCommand;
+import io.github.Piotr7421.courses.model.command.ShiftLessonsCommand;
 import io.github.Piotr7421.courses.model.command.UpdateLessonCommand;
 import io.github.Piotr7421.courses.repository.LessonRepository;
 import io.github.Piotr7421.courses.repository.StudentRepository;
 import io.github.Piotr7421.courses.repository.TeacherRepository;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -53,6 +82,18 @@ class LessonControllerTest {
     @Autowired
     StudentRepository studentRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    CoursesProperties coursesProperties;
+
     private Student student;
     private Teacher teacher;
     private Lesson lesson;
@@ -80,7 +121,7 @@ class LessonControllerTest {
 
         lesson = lessonRepository.save(
                 Lesson.builder()
-                        .date(LocalDateTime.now().plusDays(2))
+                        .date(LocalDateTime.now().plusDays(2).truncatedTo(ChronoUnit.HOURS))
                         .student(student)
                         .teacher(teacher)
                         .build());
@@ -91,6 +132,8 @@ class LessonControllerTest {
         lessonRepository.deleteAll();
         studentRepository.deleteAll();
         teacherRepository.deleteAll();
+        jdbcTemplate.update("delete from idempotency_key");
+        coursesProperties.getLessonSlot().setLockFree(false);
     }
 
     @Test
@@ -119,6 +162,65 @@ class LessonControllerTest {
                 .andExpect(jsonPath("$").isEmpty());
     }
 
+    @Test
+    void testFindPage_ResultInLessonsBeingReturnedPageByPage() throws Exception {
+        Lesson laterLesson = lessonRepository.save(
+                Lesson.builder()
+                        .date(lesson.getDate().plusDays(1))
+                        .student(student)
+                        .teacher(teacher)
+                        .build());
+
+        String response = mockMvc.perform(get("/api/v1/lessons").param("limit", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(lesson.getId()))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/lessons").param("limit", "1").param("after", nextCursor))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(laterLesson.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testFindPage_WhenCursorIsInvalid_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/lessons").param("limit", "1").param("after", "not-a-cursor"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid page cursor"));
+    }
+
+    @Test
+    void testExport_ResultInLessonsBeingStreamedAsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/lessons/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(LessonMapper.mapToDto(lesson)) + "\n"));
+    }
+
+    @Test
+    void testExport_ShouldUseItsOwnAsyncTimeout() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/lessons/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(result.getRequest().getAsyncContext().getTimeout())
+                .isEqualTo(coursesProperties.getExport().getTimeout().toMillis());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void testFindById_ResultInSpecificLessonBeingReturned() throws Exception {
         mockMvc.perform(get("/api/v1/lessons/{id}", lesson.getId()))
@@ -131,6 +233,153 @@ class LessonControllerTest {
                 .andExpect(jsonPath("$.date").value(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm").format(lesson.getDate())));
     }
 
+    @Test
+    void testReads_ShouldIssueSingleStatementRegardlessOfAssociations() throws Exception {
+        Teacher otherTeacher = teacherRepository.save(
+                Teacher.builder()
+                        .firstName("Anna")
+                        .lastName("Kowalska")
+                        .languages(Set.of(Language.JAVA))
+                        .active(true)
+                        .build());
+        Student otherStudent = studentRepository.save(
+                Student.builder()
+                        .firstName("Ola")
+                        .lastName("Nowak")
+                        .language(Language.JAVA)
+                        .teacher(otherTeacher)
+                        .active(true)
+                        .build());
+        lessonRepository.save(
+                Lesson.builder()
+                        .date(lesson.getDate().plusDays(1))
+                        .student(otherStudent)
+                        .teacher(otherTeacher)
+                        .build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/lessons"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/lessons").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/lessons/{id}", lesson.getId()))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFindById_WhenETagMatches_ShouldReturnNotModifiedAfterVersionOnlyQuery() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/lessons/{id}", lesson.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + lesson.getId() + "-0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/lessons/{id}", lesson.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        jdbcTemplate.update("update lesson set version = version + 1 where id = ?", lesson.getId());
+        mockMvc.perform(get("/api/v1/lessons/{id}", lesson.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + lesson.getId() + "-1\""))
+                .andExpect(jsonPath("$.id").value(lesson.getId()));
+    }
+
+    @Test
+    void testFindAll_WhenCollectionETagMatches_ShouldReturnNotModifiedUntilLessonsChange() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/lessons"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/lessons").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        lessonRepository.save(
+                Lesson.builder()
+                        .date(lesson.getDate().plusDays(1))
+                        .student(student)
+                        .teacher(teacher)
+                        .build());
+        mockMvc.perform(get("/api/v1/lessons").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void testFindAll_WhenLessonIsReplacedBelowHighestId_ShouldChangeCollectionETag() throws Exception {
+        lessonRepository.save(
+                Lesson.builder()
+                        .date(lesson.getDate().plusDays(1))
+                        .student(student)
+                        .teacher(teacher)
+                        .build());
+        String etag = mockMvc.perform(get("/api/v1/lessons"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // another instance's id block can sit below this one's: count, version sum and highest id all stay the same
+        jdbcTemplate.update("delete from lesson where id = ?", lesson.getId());
+        jdbcTemplate.update("insert into lesson (id, date, teacher_id, student_id, version) values (?, ?, ?, ?, 0)",
+                lesson.getId() - 1, lesson.getDate().plusDays(2), teacher.getId(), student.getId());
+
+        mockMvc.perform(get("/api/v1/lessons").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void testFindById_WhenCborIsAccepted_ShouldReturnDateAsEpochMinutes() throws Exception {
+        byte[] body = mockMvc.perform(get("/api/v1/lessons/{id}", lesson.getId())
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode result = new CBORMapper().readTree(body);
+
+        assertThat(result.get("id").asInt()).isEqualTo(lesson.getId());
+        assertThat(result.get("date").isIntegralNumber()).isTrue();
+        assertThat(result.get("date").asLong())
+                .isEqualTo(Math.floorDiv(lesson.getDate().toEpochSecond(ZoneOffset.UTC), 60));
+    }
+
+    @Test
+    void testCreate_WhenBodyIsSmile_ShouldReadEpochMinuteDate() throws Exception {
+        LocalDateTime lessonDate = LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.HOURS);
+        byte[] command = new SmileMapper().writeValueAsBytes(Map.of(
+                "date", lessonDate.toEpochSecond(ZoneOffset.UTC) / 60,
+                "teacherId", teacher.getId(),
+                "studentId", student.getId()));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/lessons")
+                        .contentType("application/x-jackson-smile")
+                        .content(command))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.date").value(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm").format(lessonDate)));
+    }
+
     @Test
     void testFindById_WhenLessonNotFound_ShouldReturnNotFound() throws Exception {
         mockMvc.perform(get("/api/v1/lessons/{id}", 99))
@@ -140,16 +389,20 @@ class LessonControllerTest {
 
     @Test
     void testCreate_HappyPath_ResultsInLessonBeingSaved() throws Exception {
-        LocalDateTime lessonDate = LocalDateTime.now().plusDays(5);
+        LocalDateTime lessonDate = LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.HOURS);
         CreateLessonCommand command = CreateLessonCommand.builder()
                 .date(lessonDate)
                 .teacherId(teacher.getId())
                 .studentId(student.getId())
                 .build();
 
-        mockMvc.perform(post("/api/v1/lessons")
+        MvcResult result = mockMvc.perform(post("/api/v1/lessons")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(command)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andDo(print())
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.teacherId").value(command.getTeacherId()))
@@ -158,9 +411,71 @@ class LessonControllerTest {
                 .andExpect(jsonPath("$.date").value(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm").format(lessonDate)));
     }
 
+    @Test
+    void testCreate_WhenIdempotencyKeyIsRepeated_ShouldReturnStoredLessonWithoutCreatingAnother() throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+        CreateLessonCommand command = CreateLessonCommand.builder()
+                .date(LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.HOURS))
+                .teacherId(teacher.getId())
+                .studentId(student.getId())
+                .build();
+
+        MvcResult first = mockMvc.perform(post("/api/v1/lessons")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String created = mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        MvcResult second = mockMvc.perform(post("/api/v1/lessons")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(second))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(content().json(created));
+
+        assertThat(lessonRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void testCreate_WhenIdempotencyKeyIsReusedForDifferentLesson_ShouldReturnUnprocessableEntity() throws Exception {
+        String idempotencyKey = UUID.randomUUID().toString();
+        CreateLessonCommand command = CreateLessonCommand.builder()
+                .date(LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.HOURS))
+                .teacherId(teacher.getId())
+                .studentId(student.getId())
+                .build();
+        MvcResult first = mockMvc.perform(post("/api/v1/lessons")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(first))
+                .andExpect(status().isCreated());
+        CreateLessonCommand other = CreateLessonCommand.builder()
+                .date(command.getDate().plusDays(1))
+                .teacherId(teacher.getId())
+                .studentId(student.getId())
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(other)))
+                .andDo(print())
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void testCreate_WhenLessonDateIsInThePast_ResultsInLessonBeingSaved() throws Exception {
-        LocalDateTime lessonDate = LocalDateTime.now().minusHours(5);
+        LocalDateTime lessonDate = LocalDateTime.now().minusHours(5).truncatedTo(ChronoUnit.HOURS);
         CreateLessonCommand command = CreateLessonCommand.builder()
                 .date(lessonDate)
                 .teacherId(teacher.getId())
@@ -181,7 +496,7 @@ class LessonControllerTest {
     @Test
     void create_WhenIncorrectTeacherId_ShouldReturnNotFound() throws Exception {
         CreateLessonCommand command = CreateLessonCommand.builder()
-                .date(LocalDateTime.now().plusDays(5))
+                .date(LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.HOURS))
                 .teacherId(99)
                 .studentId(student.getId())
                 .build();
@@ -196,7 +511,7 @@ class LessonControllerTest {
     @Test
     void create_WhenIncorrectStudentId_ShouldReturnNotFound() throws Exception {
         CreateLessonCommand command = CreateLessonCommand.builder()
-                .date(LocalDateTime.now().plusDays(5))
+                .date(LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.HOURS))
                 .teacherId(teacher.getId())
                 .studentId(99)
                 .build();
@@ -208,15 +523,421 @@ class LessonControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testCreate_ShouldRecordServiceTimerAndExceptionCounter() throws Exception {
+        CreateLessonCommand command = CreateLessonCommand.builder()
+                .date(LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.HOURS))
+                .teacherId(99)
+                .studentId(student.getId())
+                .build();
+        double notFoundCount = meterRegistry.counter("courses.exceptions", "exception", "TeacherNotFoundException").count();
+
+        mockMvc.perform(post("/api/v1/lessons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isNotFound());
+
+        assertThat(meterRegistry.counter("courses.exceptions", "exception", "TeacherNotFoundException").count())
+                .isEqualTo(notFoundCount + 1);
+        assertThat(meterRegistry.find("courses.service").tag("method", "save").timers())
+                .isNotEmpty();
+    }
+
+    @Test
+    void testCreate_ShouldRecordTeacherLockWait() throws Exception {
+        CreateLessonCommand command = CreateLessonCommand.builder()
+                .date(LocalDateTime.now().plusDays(5).truncatedTo(ChronoUnit.HOURS))
+                .teacherId(teacher.getId())
+                .studentId(student.getId())
+                .build();
+        long lockWaitCount = meterRegistry.timer("courses.teacher.lock.wait", "state", "SUCCESS").count();
+
+        mockMvc.perform(post("/api/v1/lessons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated());
+
+        assertThat(meterRegistry.timer("courses.teacher.lock.wait", "state", "SUCCESS").count())
+                .isEqualTo(lockWaitCount + 1);
+    }
+
+    @Test
+    void testCreate_WhenSlotAlreadyClaimed_ShouldReturnConflict() throws Exception {
+        coursesProperties.getLessonSlot().setLockFree(true);
+        LocalDateTime lessonDate = LocalDateTime.now().plusDays(7).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        jdbcTemplate.update("insert into lesson_slot (teacher_id, slot_start, lesson_id) values (?, ?, ?)",
+                teacher.getId(), lessonDate.plusMinutes(45), lesson.getId());
+        CreateLessonCommand command = CreateLessonCommand.builder()
+                .date(lessonDate)
+                .teacherId(teacher.getId())
+                .studentId(student.getId())
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Lesson overlaps with another lesson for the same teacher."));
+    }
+
+    @Test
+    void testCreate_WhenPreviousLessonDeleted_ShouldReuseItsSlots() throws Exception {
+        coursesProperties.getLessonSlot().setLockFree(true);
+        CreateLessonCommand command = CreateLessonCommand.builder()
+                .date(LocalDateTime.now().plusDays(7).withHour(10).withMinute(0).withSecond(0).withNano(0))
+                .teacherId(teacher.getId())
+                .studentId(student.getId())
+                .build();
+        MvcResult result = mockMvc.perform(post("/api/v1/lessons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String created = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        int createdId = objectMapper.readTree(created).get("id").asInt();
+
+        mockMvc.perform(delete("/api/v1/lessons/{id}", createdId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(post("/api/v1/lessons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void testCreate_WhenLessonsAreBackToBack_ShouldSaveBoth() throws Exception {
+        LocalDateTime lessonDate = LocalDateTime.now().plusDays(7).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+        for (LocalDateTime date : List.of(lessonDate, lessonDate.plusHours(1))) {
+            CreateLessonCommand command = CreateLessonCommand.builder()
+                    .date(date)
+                    .teacherId(teacher.getId())
+                    .studentId(student.getId())
+                    .build();
+            MvcResult result = mockMvc.perform(post("/api/v1/lessons")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(command)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andDo(print())
+                    .andExpect(status().isCreated());
+        }
+    }
+
+    @Test
+    void testCreate_WhenStartIsOffTheSlotGrid_ShouldSaveBackToBackLessons() throws Exception {
+        LocalDateTime lessonDate = LocalDateTime.now().plusDays(7).withHour(10).withMinute(5).withSecond(0).withNano(0);
+
+        for (LocalDateTime date : List.of(lessonDate, lessonDate.plusHours(1))) {
+            CreateLessonCommand command = CreateLessonCommand.builder()
+                    .date(date)
+                    .teacherId(teacher.getId())
+                    .studentId(student.getId())
+                    .build();
+            MvcResult result = mockMvc.perform(post("/api/v1/lessons")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(command)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            mockMvc.perform(asyncDispatch(result))
+                    .andDo(print())
+                    .andExpect(status().isCreated());
+        }
+        assertThat(lessonRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void testCreate_WhenLockFreeAndStartIsOffTheSlotGrid_ShouldReturnBadRequest() throws Exception {
+        coursesProperties.getLessonSlot().setLockFree(true);
+        LocalDateTime lessonDate = LocalDateTime.now().plusDays(7).withHour(10).withMinute(5).withSecond(0).withNano(0);
+
+        for (LocalDateTime date : List.of(lessonDate, lessonDate.plusHours(1))) {
+            CreateLessonCommand command = CreateLessonCommand.builder()
+                    .date(date)
+                    .teacherId(teacher.getId())
+                    .studentId(student.getId())
+                    .build();
+            mockMvc.perform(post("/api/v1/lessons")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(command)))
+                    .andDo(print())
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.violations[0].field").value("date"))
+                    .andExpect(jsonPath("$.violations[0].message").value("OFF_SLOT_GRID"));
+        }
+        assertThat(lessonRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testCreateBatch_ResultsInPerItemOutcome() throws Exception {
+        LocalDateTime lessonDate = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.HOURS);
+        CreateLessonBatchCommand command = CreateLessonBatchCommand.builder()
+                .lessons(List.of(
+                        CreateLessonCommand.builder()
+                                .date(lessonDate)
+                                .teacherId(teacher.getId())
+                                .studentId(student.getId())
+                                .build(),
+                        CreateLessonCommand.builder()
+                                .date(lessonDate.plusMinutes(30))
+                                .teacherId(teacher.getId())
+                                .studentId(student.getId())
+                                .build(),
+                        CreateLessonCommand.builder()
+                                .date(lessonDate)
+                                .teacherId(99)
+                                .studentId(student.getId())
+                                .build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].created").value(true))
+                .andExpect(jsonPath("$[0].lesson.teacherId").value(teacher.getId()))
+                .andExpect(jsonPath("$[1].created").value(false))
+                .andExpect(jsonPath("$[1].message").value("Lesson overlaps with another lesson for the same teacher."))
+                .andExpect(jsonPath("$[2].created").value(false))
+                .andExpect(jsonPath("$[2].message").value("Teacher with id=99 not found"));
+    }
+
+    @Test
+    void testCreateBatch_WhenLockFreeAndSlotTakenConcurrently_ShouldRejectOnlyThatItem() throws Exception {
+        coursesProperties.getLessonSlot().setLockFree(true);
+        LocalDateTime lessonDate = LocalDateTime.now().plusDays(10).truncatedTo(ChronoUnit.HOURS);
+        jdbcTemplate.update("insert into lesson_slot (teacher_id, slot_start, lesson_id) values (?, ?, ?)",
+                teacher.getId(), lessonDate.plusMinutes(45), lesson.getId());
+        CreateLessonBatchCommand command = CreateLessonBatchCommand.builder()
+                .lessons(List.of(
+                        CreateLessonCommand.builder()
+                                .date(lessonDate)
+                                .teacherId(teacher.getId())
+                                .studentId(student.getId())
+                                .build(),
+                        CreateLessonCommand.builder()
+                                .date(lessonDate.plusHours(3))
+                                .teacherId(teacher.getId())
+                                .studentId(student.getId())
+                                .build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].created").value(false))
+                .andExpect(jsonPath("$[0].message").value("Lesson overlaps with another lesson for the same teacher."))
+                .andExpect(jsonPath("$[1].created").value(true));
+
+        assertThat(lessonRepository.count()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from lesson_slot where teacher_id = ?", Integer.class,
+                teacher.getId())).isEqualTo(5);
+    }
+
+    @Test
+    void testCreateBatch_WhenItemDateIsInThePast_ShouldReturnBadRequest() throws Exception {
+        CreateLessonBatchCommand command = CreateLessonBatchCommand.builder()
+                .lessons(List.of(CreateLessonCommand.builder()
+                        .date(LocalDateTime.now().minusHours(2).truncatedTo(ChronoUnit.HOURS))
+                        .teacherId(teacher.getId())
+                        .studentId(student.getId())
+                        .build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.violations[0].field").value("lessons[0].date"))
+                .andExpect(jsonPath("$.violations[0].message").value("PAST_DATE"));
+    }
+
+    @Test
+    void testCreateSeries_WhenConflictsAreSkipped_ShouldCreateRemainingOccurrences() throws Exception {
+        CreateLessonSeriesCommand command = CreateLessonSeriesCommand.builder()
+                .date(lesson.getDate().minusDays(1).plusMinutes(30))
+                .teacherId(teacher.getId())
+                .studentId(student.getId())
+                .recurrence(Recurrence.DAILY)
+                .occurrences(3)
+                .onConflict(ConflictPolicy.SKIP)
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons/series")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].created").value(true))
+                .andExpect(jsonPath("$[1].created").value(false))
+                .andExpect(jsonPath("$[1].message").value("Lesson overlaps with another lesson for the same teacher."))
+                .andExpect(jsonPath("$[2].created").value(true));
+
+        assertThat(lessonRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void testCreateSeries_WhenOccurrenceOverlaps_ShouldReturnConflictAndCreateNothing() throws Exception {
+        CreateLessonSeriesCommand command = CreateLessonSeriesCommand.builder()
+                .date(lesson.getDate().minusDays(1).plusMinutes(30))
+                .teacherId(teacher.getId())
+                .studentId(student.getId())
+                .recurrence(Recurrence.DAILY)
+                .occurrences(3)
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons/series")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Lesson overlaps with another lesson for the same teacher."));
+
+        assertThat(lessonRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void testShift_ResultsInLessonsInRangeBeingMovedWithTheirSlots() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(5).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        createBatch(base, base.plusDays(1));
+        ShiftLessonsCommand command = ShiftLessonsCommand.builder()
+                .teacherId(teacher.getId())
+                .from(base)
+                .to(base.plusDays(2))
+                .days(1)
+                .build();
+
+        String shifted = mockMvc.perform(post("/api/v1/lessons/shift")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].date").value(base.plusDays(1).format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm"))))
+                .andExpect(jsonPath("$[1].date").value(base.plusDays(2).format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm"))))
+                .andReturn().getResponse().getContentAsString();
+
+        int shiftedId = objectMapper.readTree(shifted).get(0).get("id").asInt();
+        assertThat(lessonRepository.findVersionById(shiftedId)).contains(1);
+        assertThat(lessonRepository.findVersionById(lesson.getId())).contains(0);
+        MvcResult freed = mockMvc.perform(post("/api/v1/lessons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateLessonCommand.builder()
+                                .date(base)
+                                .teacherId(teacher.getId())
+                                .studentId(student.getId())
+                                .build())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(freed))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void testShift_ShouldNotEvictTeachersFromSecondLevelCache() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(5).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        createBatch(base);
+        mockMvc.perform(get("/api/v1/teachers/{id}", teacher.getId()))
+                .andExpect(status().isOk());
+        assertThat(entityManagerFactory.getCache().contains(Teacher.class, teacher.getId())).isTrue();
+        ShiftLessonsCommand command = ShiftLessonsCommand.builder()
+                .teacherId(teacher.getId())
+                .from(base)
+                .to(base.plusDays(1))
+                .days(1)
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons/shift")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isOk());
+
+        assertThat(entityManagerFactory.getCache().contains(Teacher.class, teacher.getId())).isTrue();
+    }
+
+    @Test
+    void testShift_WhenMovedLessonWouldOverlap_ShouldReturnConflictAndMoveNothing() throws Exception {
+        LocalDateTime base = LocalDateTime.now().plusDays(5).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        createBatch(base, base.plusHours(3));
+        ShiftLessonsCommand command = ShiftLessonsCommand.builder()
+                .teacherId(teacher.getId())
+                .from(base.plusHours(2))
+                .to(base.plusHours(4))
+                .minutes(-150)
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons/shift")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Lesson overlaps with another lesson for the same teacher."));
+
+        assertThat(lessonRepository.findAll()).extracting(Lesson::getDate).contains(base.plusHours(3));
+    }
+
+    @Test
+    void testShift_WhenLessonsWouldMoveIntoThePast_ShouldReturnBadRequest() throws Exception {
+        ShiftLessonsCommand command = ShiftLessonsCommand.builder()
+                .teacherId(teacher.getId())
+                .from(LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS))
+                .to(LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.HOURS))
+                .days(-2)
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons/shift")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Lessons cannot be moved into the past"));
+    }
+
+    @Test
+    void testShift_WhenLockFreeAndMinutesAreOffTheSlotGrid_ShouldReturnBadRequest() throws Exception {
+        coursesProperties.getLessonSlot().setLockFree(true);
+        ShiftLessonsCommand command = ShiftLessonsCommand.builder()
+                .teacherId(teacher.getId())
+                .from(LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS))
+                .to(LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.HOURS))
+                .minutes(5)
+                .build();
+
+        mockMvc.perform(post("/api/v1/lessons/shift")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.violations[0].field").value("minutes"))
+                .andExpect(jsonPath("$.violations[0].message").value("OFF_SLOT_GRID"));
+    }
+
     @Test
     void testUpdate_HappyPath_ResultsInLessonsDateBeingUpdated() throws Exception {
         UpdateLessonCommand command = UpdateLessonCommand.builder()
-                .date(LocalDateTime.now().plusDays(3))
+                .date(LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.HOURS))
                 .build();
 
-        mockMvc.perform(patch("/api/v1/lessons/" + lesson.getId())
+        MvcResult result = mockMvc.perform(patch("/api/v1/lessons/" + lesson.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(command)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.teacherId").value(lesson.getTeacher().getId()))
@@ -227,7 +948,7 @@ class LessonControllerTest {
     @Test
     void testUpdate_WhenIncorrectLessonId_ShouldReturnNotFound() throws Exception {
         UpdateLessonCommand command = UpdateLessonCommand.builder()
-                .date(LocalDateTime.now().plusDays(3))
+                .date(LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.HOURS))
                 .build();
 
         mockMvc.perform(patch("/api/v1/lessons/{id}", 99)
@@ -270,4 +991,20 @@ class LessonControllerTest {
         mockMvc.perform(get("/api/v1/lessons/{id}", lessonInThePast.getId()))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    private void createBatch(LocalDateTime... dates) throws Exception {
+        CreateLessonBatchCommand command = CreateLessonBatchCommand.builder()
+                .lessons(Arrays.stream(dates)
+                        .map(date -> CreateLessonCommand.builder()
+                                .date(date)
+                                .teacherId(teacher.getId())
+                                .studentId(student.getId())
+                                .build())
+                        .toList())
+                .build();
+        mockMvc.perform(post("/api/v1/lessons/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isOk());
+    }
+}
@@ -1,32 +1,48 @@
 package io.github.Piotr7421.courses.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import io.github.Piotr7421.courses.common.Language;
 import io.github.Piotr7421.courses.model.Student;
 import io.github.Piotr7421.courses.model.Teacher;
 import io.github.Piotr7421.courses.model.command.CreateStudentCommand;
+import io.github.Piotr7421.courses.model.command.ReassignStudentCommand;
+import io.github.Piotr7421.courses.model.command.ReassignStudentsCommand;
 import io.github.Piotr7421.courses.model.command.UpdateStudentCommand;
 import io.github.Piotr7421.courses.repository.StudentRepository;
 import io.github.Piotr7421.courses.repository.TeacherRepository;
 
+import java.util.List;
 import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -46,6 +62,12 @@ class StudentControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private Student student;
     private Teacher teacher;
 
@@ -101,6 +123,50 @@ class StudentControllerTest {
                 .andExpect(jsonPath("$").isNotEmpty());
     }
 
+    @Test
+    void reads_ShouldIssueSingleStatementPerRequest() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/students"))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/students/" + student.getId()))
+                .andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findById_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/students/" + student.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/students/" + student.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void findAll_WhenStudentIsDeleted_ShouldChangeCollectionETag() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/students"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/v1/students").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        studentRepository.deleteById(student.getId());
+
+        mockMvc.perform(get("/api/v1/students").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
     @Test
     void findById_WhenStudentNotFound_ShouldThrowException() throws Exception {
         int studentId = 10;
@@ -176,9 +242,13 @@ class StudentControllerTest {
                 .teacherId(saved.getId())
                 .build();
 
-        mockMvc.perform(patch("/api/v1/students/" + student.getId())
+        MvcResult result = mockMvc.perform(patch("/api/v1/students/" + student.getId())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(command)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andDo(print())
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(student.getId()))
@@ -189,6 +259,92 @@ class StudentControllerTest {
                 .andExpect(jsonPath("$").isNotEmpty());
     }
 
+    @Test
+    void reassign_ShouldMoveStudentsAndReportStaleVersions() throws Exception {
+        Teacher newTeacher = teacherRepository.save(Teacher.builder()
+                .firstName("Zuza")
+                .lastName("Pawlak")
+                .languages(Set.of(Language.JAVA, Language.COBOL))
+                .active(true)
+                .build());
+        Student staleStudent = studentRepository.save(Student.builder()
+                .firstName("Ola")
+                .lastName("Nowak")
+                .language(Language.JAVA)
+                .teacher(teacher)
+                .active(true)
+                .build());
+        ReassignStudentsCommand command = ReassignStudentsCommand.builder()
+                .teacherId(newTeacher.getId())
+                .students(List.of(
+                        ReassignStudentCommand.builder()
+                                .id(student.getId())
+                                .version(0)
+                                .build(),
+                        ReassignStudentCommand.builder()
+                                .id(staleStudent.getId())
+                                .version(3)
+                                .build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/students/reassign")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.teacherId").value(newTeacher.getId()))
+                .andExpect(jsonPath("$.reassignedIds", contains(student.getId())))
+                .andExpect(jsonPath("$.failedIds", contains(staleStudent.getId())));
+
+        Student reassigned = studentRepository.findById(student.getId()).orElseThrow();
+        assertThat(reassigned.getTeacher().getId()).isEqualTo(newTeacher.getId());
+        assertThat(reassigned.getVersion()).isEqualTo(1);
+        assertThat(studentRepository.findDtoById(staleStudent.getId()).orElseThrow().getTeacherId())
+                .isEqualTo(teacher.getId());
+    }
+
+    @Test
+    void reassign_WhenTeacherDoesNotTeachStudentLanguage_ShouldReturnBadRequestAndMoveNobody() throws Exception {
+        Teacher newTeacher = teacherRepository.save(Teacher.builder()
+                .firstName("Zuza")
+                .lastName("Pawlak")
+                .languages(Set.of(Language.COBOL))
+                .active(true)
+                .build());
+        ReassignStudentsCommand command = ReassignStudentsCommand.builder()
+                .teacherId(newTeacher.getId())
+                .students(List.of(ReassignStudentCommand.builder()
+                        .id(student.getId())
+                        .version(0)
+                        .build()))
+                .build();
+
+        mockMvc.perform(post("/api/v1/students/reassign")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Incompatible teacher language, teacher id="
+                        + newTeacher.getId() + ", language=JAVA"));
+
+        assertThat(studentRepository.findDtoById(student.getId()).orElseThrow().getTeacherId()).isEqualTo(teacher.getId());
+    }
+
+    @Test
+    void update_ShouldRecordTeacherLockWaitTime() throws Exception {
+        UpdateStudentCommand command = UpdateStudentCommand.builder()
+                .teacherId(teacher.getId())
+                .build();
+        long lockWaitCount = lockWaitCount();
+
+        mockMvc.perform(patch("/api/v1/students/" + student.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isOk());
+
+        assertThat(lockWaitCount()).isEqualTo(lockWaitCount + 1);
+    }
+
     @Test
     void update_WhenStudentNotFound_ShouldThrowException() throws Exception {
         int studentId = 10;
@@ -256,4 +412,10 @@ class StudentControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
     }
-}
\ No newline at end of file
+
+    private long lockWaitCount() {
+        return meterRegistry.find("courses.teacher.lock.wait").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
@@ -1,31 +1,53 @@
 package io.github.Piotr7421.courses.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import io.github.Piotr7421.courses.common.Cursor;
 import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.config.ReadYourWritesFilter;
+import io.github.Piotr7421.courses.model.Lesson;
+import io.github.Piotr7421.courses.model.Student;
 import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
 import io.github.Piotr7421.courses.model.command.CreateTeacherCommand;
+import io.github.Piotr7421.courses.model.command.UpdateTeacherCommand;
+import io.github.Piotr7421.courses.repository.LessonRepository;
+import io.github.Piotr7421.courses.repository.StudentRepository;
 import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.TeacherLanguageIndex;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,15 +56,32 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ActiveProfiles("test")
 class TeacherControllerTest {
 
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
     private TeacherRepository teacherRepository;
 
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TeacherLanguageIndex teacherLanguageIndex;
+
     private Teacher teacher;
 
     @BeforeEach
@@ -59,7 +98,11 @@ class TeacherControllerTest {
 
     @AfterEach
     public void tearDown() {
+        lessonRepository.deleteAll();
+        studentRepository.deleteAll();
         teacherRepository.deleteAll();
+        // rows deleted behind the services' back would otherwise stay in the per-instance index
+        teacherLanguageIndex.warmUp();
     }
 
     @Test
@@ -75,6 +118,156 @@ class TeacherControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)));
     }
 
+    @Test
+    void findAvailability_ShouldReturnGapsBetweenLessons() throws Exception {
+        Student student = studentRepository.save(Student.builder()
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .language(Language.JAVA)
+                .teacher(teacher)
+                .active(true)
+                .build());
+        LocalDateTime day = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.DAYS);
+        lessonRepository.save(Lesson.builder()
+                .date(day.withHour(10))
+                .teacher(teacher)
+                .student(student)
+                .build());
+
+        mockMvc.perform(get("/api/v1/teachers/{id}/availability", teacher.getId())
+                        .param("from", DATE_FORMAT.format(day.withHour(8)))
+                        .param("to", DATE_FORMAT.format(day.withHour(12))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].from").value(DATE_FORMAT.format(day.withHour(8))))
+                .andExpect(jsonPath("$[0].to").value(DATE_FORMAT.format(day.withHour(10))))
+                .andExpect(jsonPath("$[1].from").value(DATE_FORMAT.format(day.withHour(11))))
+                .andExpect(jsonPath("$[1].to").value(DATE_FORMAT.format(day.withHour(12))));
+    }
+
+    @Test
+    void findAvailability_WhenWindowIsReversed_ShouldReturnBadRequest() throws Exception {
+        LocalDateTime day = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.DAYS);
+
+        mockMvc.perform(get("/api/v1/teachers/{id}/availability", teacher.getId())
+                        .param("from", DATE_FORMAT.format(day.withHour(12)))
+                        .param("to", DATE_FORMAT.format(day.withHour(8))))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Window start must be before its end"));
+    }
+
+    @Test
+    void findAvailable_ShouldReturnTeachersSpeakingLanguageWithoutLessonAtThatTime() throws Exception {
+        int busyTeacherId = createTeacher(Set.of(Language.JAVA));
+        int freeTeacherId = createTeacher(Set.of(Language.JAVA, Language.C));
+        createTeacher(Set.of(Language.C));
+        Student student = studentRepository.save(Student.builder()
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .language(Language.JAVA)
+                .teacher(teacherRepository.findById(busyTeacherId).orElseThrow())
+                .active(true)
+                .build());
+        LocalDateTime date = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.HOURS);
+        mockMvc.perform(post("/api/v1/lessons")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateLessonCommand.builder()
+                                .date(date)
+                                .teacherId(busyTeacherId)
+                                .studentId(student.getId())
+                                .build())))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/teachers")
+                        .param("language", "JAVA")
+                        .param("date", DATE_FORMAT.format(date.plusMinutes(30))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains(freeTeacherId)));
+
+        mockMvc.perform(get("/api/v1/teachers")
+                        .param("language", "JAVA")
+                        .param("date", DATE_FORMAT.format(date.plusHours(1))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains(busyTeacherId, freeTeacherId)));
+    }
+
+    @Test
+    void findAvailable_ShouldBeAnsweredFromIndexesWithoutStatements() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            createTeacher(Set.of(Language.JAVA));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+
+        mockMvc.perform(get("/api/v1/teachers")
+                        .param("language", "JAVA")
+                        .param("date", DATE_FORMAT.format(LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.HOURS))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasSize(5)))
+                .andExpect(jsonPath("$[0].firstName").isString());
+
+        assertThat(statistics.getPrepareStatementCount() - statements).isZero();
+    }
+
+    @Test
+    void findPage_ShouldReturnTeachersAfterCursor() throws Exception {
+        Teacher secondTeacher = teacherRepository.save(Teacher.builder()
+                .firstName("Ewa")
+                .lastName("Lis")
+                .languages(Set.of(Language.C))
+                .active(true)
+                .build());
+
+        mockMvc.perform(get("/api/v1/teachers").param("limit", "1"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(teacher.getId()))
+                .andExpect(jsonPath("$.items[0].languages", containsInAnyOrder("JAVA", "PYTHON")))
+                .andExpect(jsonPath("$.nextCursor").isString());
+
+        mockMvc.perform(get("/api/v1/teachers").param("limit", "5").param("after", Cursor.of(teacher.getId()).encode()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id").value(secondTeacher.getId()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void findPage_WhenLimitOutOfRange_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/teachers").param("limit", "0"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findAllByLanguage_ShouldReturnOnlyTeachersSpeakingLanguage() throws Exception {
+        Teacher cobolTeacher = teacherRepository.save(Teacher.builder()
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .languages(Set.of(Language.COBOL))
+                .active(true)
+                .build());
+
+        mockMvc.perform(get("/api/v1/teachers").param("language", "COBOL"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(cobolTeacher.getId()))
+                .andExpect(jsonPath("$[0].languages", containsInAnyOrder("COBOL")));
+
+        mockMvc.perform(get("/api/v1/teachers").param("language", "PYTHON"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(teacher.getId()));
+    }
+
     @Test
     void findAll_WhenNoTeachers_ShouldReturnEmptyList() throws Exception {
         teacherRepository.deleteAll(); // Czyszczenie przed testem
@@ -98,13 +291,119 @@ class TeacherControllerTest {
                 .andExpect(jsonPath("$").isNotEmpty());
     }
 
+    @Test
+    void findById_WhenCalledTwice_ShouldServeTeacherFromSecondLevelCache() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        mockMvc.perform(get("/api/v1/teachers/{id}", teacher.getId()))
+                .andExpect(status().isOk());
+        long hits = statistics.getSecondLevelCacheHitCount();
+
+        mockMvc.perform(get("/api/v1/teachers/{id}", teacher.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.languages", containsInAnyOrder("JAVA", "PYTHON")));
+
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hits);
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tags("region", "teacher", "result", "hit")
+                .functionCounter())
+                .isNotNull();
+    }
+
+    @Test
+    void findById_AfterUpdate_ShouldNotServeStaleLanguages() throws Exception {
+        mockMvc.perform(get("/api/v1/teachers/{id}", teacher.getId()))
+                .andExpect(status().isOk());
+        UpdateTeacherCommand command = UpdateTeacherCommand.builder()
+                .languages(Set.of(Language.C))
+                .build();
+
+        mockMvc.perform(patch("/api/v1/teachers/{id}", teacher.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE_NAME));
+
+        mockMvc.perform(get("/api/v1/teachers/{id}", teacher.getId()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.languages", containsInAnyOrder("C")));
+    }
+
+    @Test
+    void update_WhenStudentsLearnDroppedLanguage_ShouldReturnBadRequestWithOffendingLanguages() throws Exception {
+        studentRepository.save(Student.builder()
+                .firstName("Jan")
+                .lastName("Kowalski")
+                .language(Language.JAVA)
+                .teacher(teacher)
+                .active(true)
+                .build());
+        UpdateTeacherCommand command = UpdateTeacherCommand.builder()
+                .languages(Set.of(Language.C))
+                .build();
+
+        mockMvc.perform(patch("/api/v1/teachers/{id}", teacher.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Incompatible teacher language, teacher id="
+                        + teacher.getId() + ", language=JAVA"));
+    }
+
+    @Test
+    void findById_WhenETagMatches_ShouldReturnNotModifiedUntilTeacherIsUpdated() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/teachers/{id}", teacher.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/v1/teachers/{id}", teacher.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        UpdateTeacherCommand command = UpdateTeacherCommand.builder()
+                .languages(Set.of(Language.C))
+                .build();
+
+        mockMvc.perform(patch("/api/v1/teachers/{id}", teacher.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/teachers/{id}", teacher.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + teacher.getId() + "-1\""))
+                .andExpect(jsonPath("$.languages", containsInAnyOrder("C")));
+    }
+
+    @Test
+    void findAll_WhenCollectionETagMatches_ShouldReturnNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/teachers"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/teachers").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andDo(print())
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void findById_AfterSoftDelete_ShouldReturnNotFound() throws Exception {
+        mockMvc.perform(get("/api/v1/teachers/{id}", teacher.getId()))
+                .andExpect(status().isOk());
+
+        teacherRepository.deleteById(teacher.getId());
+
+        mockMvc.perform(get("/api/v1/teachers/{id}", teacher.getId()))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void findById_WhenTeacherNotFound_ShouldThrowException() throws Exception {
-        int teacherId = 10;
+        int teacherId = 999;
         mockMvc.perform(get("/api/v1/teachers/" + teacherId))
                 .andDo(print())
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.message").value("Teacher with id=10 not found"));
+                .andExpect(jsonPath("$.message").value("Teacher with id=999 not found"));
     }
 
     @Test
@@ -163,5 +462,18 @@ class TeacherControllerTest {
                                 hasEntry("message", "EMPTY_VALUE")
                         ))));
     }
-}
 
+    private int createTeacher(Set<Language> languages) throws Exception {
+        CreateTeacherCommand command = CreateTeacherCommand.builder()
+                .firstName("Ewa")
+                .lastName("Lis")
+                .languages(languages)
+                .build();
+        String response = mockMvc.perform(post("/api/v1/teachers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(command)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asInt();
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.Piotr7421.courses.model.converter;
+
+import org.junit.jupiter.api.Test;
+import io.github.Piotr7421.courses.common.Language;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LanguageSetConverterTest {
+
+    private final LanguageSetConverter converter = new LanguageSetConverter();
+
+    @Test
+    void convertToDatabaseColumn_ShouldSetOneBitPerLanguageOrdinal() {
+        assertThat(converter.convertToDatabaseColumn(Set.of(Language.JAVA, Language.C, Language.COBOL)))
+                .isEqualTo(1 | 4 | 64);
+    }
+
+    @Test
+    void convertToDatabaseColumn_WhenNull_ShouldReturnZero() {
+        assertThat(converter.convertToDatabaseColumn(null)).isZero();
+    }
+
+    @Test
+    void convertToEntityAttribute_ShouldRestoreLanguages() {
+        Set<Language> languages = EnumSet.of(Language.PYTHON, Language.JS_NODE);
+
+        assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(languages)))
+                .isEqualTo(languages);
+    }
+
+    @Test
+    void masksContaining_ShouldReturnEveryCombinationWithLanguage() {
+        List<Integer> masks = LanguageSetConverter.masksContaining(Language.CPP);
+
+        assertThat(masks).hasSize(1 << (Language.values().length - 1));
+        assertThat(masks).allSatisfy(mask -> assertThat(converter.convertToEntityAttribute(mask)).contains(Language.CPP));
+        assertThat(masks).doesNotHaveDuplicates();
+    }
+}
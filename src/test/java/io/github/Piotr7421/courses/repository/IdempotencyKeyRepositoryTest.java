@@ -0,0 +1,80 @@
+package io.github.Piotr7421.courses.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyKeyRepositoryTest {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String FINGERPRINT = "0".repeat(64);
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("delete from idempotency_key");
+    }
+
+    @Test
+    void deleteCreatedBefore_ShouldDeleteOnlyExpiredRowsUpToLimit() {
+        for (int i = 0; i < 3; i++) {
+            idempotencyKeyRepository.reserve("lessons", "old-" + i, FINGERPRINT, now.minusDays(2), now.minusDays(1));
+        }
+        idempotencyKeyRepository.reserve("lessons", "fresh", FINGERPRINT, now, now.minusDays(1));
+
+        assertThat(idempotencyKeyRepository.deleteCreatedBefore(now.minusDays(1), 2)).isEqualTo(2);
+        assertThat(idempotencyKeyRepository.deleteCreatedBefore(now.minusDays(1), 2)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("select idempotency_key from idempotency_key", String.class))
+                .containsExactly("fresh");
+    }
+
+    @Test
+    void reserve_WhenExpiredRowIsNotPurgedYet_ShouldTakeItOver() {
+        idempotencyKeyRepository.reserve("lessons", "key-1", FINGERPRINT, now.minusDays(2), now.minusDays(1));
+        idempotencyKeyRepository.saveResponse("lessons", "key-1", "old");
+
+        assertThat(idempotencyKeyRepository.reserve("lessons", "key-1", FINGERPRINT, now, now.minusDays(1))).isTrue();
+
+        assertThat(idempotencyKeyRepository.find("lessons", "key-1", now.minusDays(1)))
+                .hasValueSatisfying(stored -> assertThat(stored.isPending()).isTrue());
+    }
+
+    @Test
+    void reserve_WhenLiveRowExists_ShouldKeepIt() {
+        idempotencyKeyRepository.reserve("lessons", "key-1", FINGERPRINT, now.minusMinutes(1), now.minusDays(1));
+        idempotencyKeyRepository.saveResponse("lessons", "key-1", "first");
+
+        assertThat(idempotencyKeyRepository.reserve("lessons", "key-1", FINGERPRINT, now, now.minusDays(1))).isFalse();
+
+        assertThat(idempotencyKeyRepository.find("lessons", "key-1", now.minusDays(1)))
+                .hasValueSatisfying(stored -> assertThat(stored.body()).isEqualTo("first"));
+    }
+
+    @Test
+    void release_ShouldDeleteOnlyPendingRow() {
+        idempotencyKeyRepository.reserve("lessons", "pending", FINGERPRINT, now, now.minusDays(1));
+        idempotencyKeyRepository.reserve("lessons", "done", FINGERPRINT, now, now.minusDays(1));
+        idempotencyKeyRepository.saveResponse("lessons", "done", "stored");
+
+        idempotencyKeyRepository.release("lessons", "pending");
+        idempotencyKeyRepository.release("lessons", "done");
+
+        assertThat(jdbcTemplate.queryForList("select idempotency_key from idempotency_key", String.class))
+                .containsExactly("done");
+    }
+}
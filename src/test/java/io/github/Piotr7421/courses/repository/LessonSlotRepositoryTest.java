@@ -0,0 +1,46 @@
+package io.github.Piotr7421.courses.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LessonSlotRepositoryTest {
+
+    @Test
+    void slotStarts_WhenLessonStartsOnSlotBoundary_ShouldCoverFourSlots() {
+        LocalDateTime date = LocalDateTime.of(2030, 1, 15, 10, 0);
+
+        List<LocalDateTime> slots = LessonSlotRepository.slotStarts(date);
+
+        assertThat(slots).containsExactly(
+                date,
+                date.plusMinutes(15),
+                date.plusMinutes(30),
+                date.plusMinutes(45));
+    }
+
+    @Test
+    void slotStarts_WhenLessonStartsBetweenSlots_ShouldRoundOutward() {
+        LocalDateTime date = LocalDateTime.of(2030, 1, 15, 10, 10, 30);
+
+        List<LocalDateTime> slots = LessonSlotRepository.slotStarts(date);
+
+        assertThat(slots).containsExactly(
+                LocalDateTime.of(2030, 1, 15, 10, 0),
+                LocalDateTime.of(2030, 1, 15, 10, 15),
+                LocalDateTime.of(2030, 1, 15, 10, 30),
+                LocalDateTime.of(2030, 1, 15, 10, 45),
+                LocalDateTime.of(2030, 1, 15, 11, 0));
+    }
+
+    @Test
+    void slotStarts_WhenLessonsDoNotOverlap_ShouldNotShareSlots() {
+        LocalDateTime date = LocalDateTime.of(2030, 1, 15, 10, 0);
+
+        assertThat(LessonSlotRepository.slotStarts(date))
+                .doesNotContainAnyElementsOf(LessonSlotRepository.slotStarts(date.plusHours(1)));
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.Piotr7421.courses.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.model.Teacher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "io.github.Piotr7421.courses.repository.QueryPlanTest$CapturingStatementInspector")
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime date = LocalDateTime.now();
+
+    @BeforeEach
+    void setUp() {
+        CapturingStatementInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void existsByTeacherAndDateAfterAndDateBefore_ShouldUseTeacherDateIndex() {
+        lessonRepository.existsByTeacherAndDateAfterAndDateBefore(Teacher.builder().id(1).build(), date.minusHours(1), date.plusHours(1));
+
+        assertIndexScan("IDX_LESSON_TEACHER_DATE");
+    }
+
+    @Test
+    void findAllDatesByTeacherIdAfter_ShouldUseTeacherDateIndex() {
+        lessonRepository.findAllDatesByTeacherIdAfter(1, date);
+
+        assertIndexScan("IDX_LESSON_TEACHER_DATE");
+    }
+
+    @Test
+    void findAllDatesByTeacherIdBetween_ShouldUseTeacherDateIndex() {
+        lessonRepository.findAllDatesByTeacherIdBetween(1, date, date.plusDays(7));
+
+        assertIndexScan("IDX_LESSON_TEACHER_DATE");
+    }
+
+    @Test
+    void existsByIdAndDateBefore_ShouldUsePrimaryKey() {
+        lessonRepository.existsByIdAndDateBefore(1, date);
+
+        assertIndexScan("PRIMARY_KEY");
+    }
+
+    @Test
+    void findDtoPageAfter_ShouldUseDateIdIndex() {
+        lessonRepository.findDtoPageAfter(date, 1, Limit.of(20));
+
+        assertIndexScan("IDX_LESSON_DATE_ID");
+    }
+
+    @Test
+    void findAllByTeacherId_ShouldUseStudentTeacherActiveIndex() {
+        studentRepository.findAllByTeacherId(1);
+
+        assertIndexScan("IDX_STUDENT_TEACHER_ACTIVE");
+    }
+
+    @Test
+    void findDistinctLanguagesByTeacherIdAndLanguageIn_ShouldUseStudentTeacherActiveIndex() {
+        studentRepository.findDistinctLanguagesByTeacherIdAndLanguageIn(1, List.of(Language.C, Language.COBOL));
+
+        assertIndexScan("IDX_STUDENT_TEACHER_ACTIVE");
+    }
+
+    private void assertIndexScan(String index) {
+        List<String> statements = CapturingStatementInspector.STATEMENTS;
+        assertThat(statements).isNotEmpty();
+        String plan = explain(statements.get(statements.size() - 1));
+        assertThat(plan).doesNotContain("tableScan").contains(index);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.query("EXPLAIN " + sql, ps -> {
+            for (int i = 1; i <= ps.getParameterMetaData().getParameterCount(); i++) {
+                ps.setObject(i, null);
+            }
+        }, rs -> rs.next() ? rs.getString(1) : null);
+    }
+
+    public static class CapturingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
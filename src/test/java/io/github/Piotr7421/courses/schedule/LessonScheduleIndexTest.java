@@ -0,0 +1,252 @@
+package io.github.Piotr7421.courses.schedule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.OverlappingLessonException;
+import io.github.Piotr7421.courses.model.Lesson;
+import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.model.projection.LessonSlotView;
+import io.github.Piotr7421.courses.repository.LessonRepository;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LessonScheduleIndexTest {
+
+    @Mock
+    private LessonRepository lessonRepository;
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CoursesProperties properties;
+    private LessonScheduleIndex index;
+    private LocalDateTime lessonDate;
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CoursesProperties();
+        index = new LessonScheduleIndex(lessonRepository, teacherRepository, properties, transactionManager);
+        lessonDate = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        teacher = Teacher.builder()
+                .id(1)
+                .build();
+    }
+
+    @Test
+    void overlaps_WhenLessonWithinAnHour_ShouldReturnTrue() {
+        when(lessonRepository.findAllDatesByTeacherIdAfter(eq(1), any(LocalDateTime.class)))
+                .thenReturn(List.of(lessonDate));
+
+        assertThat(index.overlaps(1, lessonDate)).isTrue();
+        assertThat(index.overlaps(1, lessonDate.plusMinutes(59))).isTrue();
+        assertThat(index.overlaps(1, lessonDate.minusMinutes(59))).isTrue();
+    }
+
+    @Test
+    void overlaps_WhenLessonStartsAfterPreviousEnds_ShouldReturnFalse() {
+        when(lessonRepository.findAllDatesByTeacherIdAfter(eq(1), any(LocalDateTime.class)))
+                .thenReturn(List.of(lessonDate));
+
+        assertThat(index.overlaps(1, lessonDate.plusHours(1))).isFalse();
+        assertThat(index.overlaps(1, lessonDate.minusHours(1))).isFalse();
+    }
+
+    @Test
+    void overlaps_ShouldLoadTeacherScheduleOnlyOnce() {
+        when(lessonRepository.findAllDatesByTeacherIdAfter(eq(1), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        index.overlaps(1, lessonDate);
+        index.overlaps(1, lessonDate.plusHours(3));
+
+        verify(lessonRepository, times(1)).findAllDatesByTeacherIdAfter(eq(1), any(LocalDateTime.class));
+    }
+
+    @Test
+    void warmUp_ShouldLoadAllTeacherSchedules() {
+        LessonSlotView slot = new LessonSlotView() {
+            @Override
+            public int getTeacherId() {
+                return 1;
+            }
+
+            @Override
+            public LocalDateTime getDate() {
+                return lessonDate;
+            }
+        };
+        when(teacherRepository.findAllActiveIds()).thenReturn(List.of(1, 2));
+        when(lessonRepository.findAllSlotsAfter(any(LocalDateTime.class))).thenReturn(List.of(slot));
+
+        index.warmUp();
+
+        assertThat(index.overlaps(1, lessonDate.plusMinutes(30))).isTrue();
+        assertThat(index.overlaps(2, lessonDate.plusMinutes(30))).isFalse();
+        verify(lessonRepository, never()).findAllDatesByTeacherIdAfter(anyInt(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void register_OutsideTransaction_ShouldSeedEmptySchedule() {
+        index.register(3);
+
+        assertThat(index.overlaps(3, lessonDate)).isFalse();
+        verify(lessonRepository, never()).findAllDatesByTeacherIdAfter(anyInt(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void reserve_WhenAnotherInstanceBookedOverlappingLesson_ShouldFailBeforeCommitByDefault() {
+        when(lessonRepository.findAllDatesByTeacherIdAfter(eq(1), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        when(lessonRepository.findAllDatesByTeacherIdBetween(1, lessonDate.minusHours(1), lessonDate.plusHours(1)))
+                .thenReturn(List.of(lessonDate, lessonDate.plusMinutes(30)));
+        Lesson lesson = Lesson.builder()
+                .id(1)
+                .date(lessonDate)
+                .teacher(teacher)
+                .build();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.reserve(lesson);
+
+            assertThatExceptionOfType(OverlappingLessonException.class).isThrownBy(() -> TransactionSynchronizationManager
+                    .getSynchronizations()
+                    .forEach(synchronization -> synchronization.beforeCommit(false)));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reserve_WhenTransactionBooksSeveralLessonsOfTeacher_ShouldVerifyWithOneRangeQuery() {
+        when(lessonRepository.findAllDatesByTeacherIdAfter(eq(1), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        when(lessonRepository.findAllDatesByTeacherIdBetween(1, lessonDate.minusHours(1), lessonDate.plusHours(3)))
+                .thenReturn(List.of(lessonDate, lessonDate.plusHours(2)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.reserve(Lesson.builder().id(1).date(lessonDate).teacher(teacher).build());
+            index.reserve(Lesson.builder().id(2).date(lessonDate.plusHours(2)).teacher(teacher).build());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.beforeCommit(false));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(lessonRepository, times(1)).findAllDatesByTeacherIdBetween(anyInt(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void reserve_WhenSlotsGuardBookings_ShouldNotVerifyBeforeCommit() {
+        properties.getLessonSlot().setLockFree(true);
+        when(lessonRepository.findAllDatesByTeacherIdAfter(eq(1), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.reserve(Lesson.builder().id(1).date(lessonDate).teacher(teacher).build());
+            index.reserveChecked(Lesson.builder().id(2).date(lessonDate.plusHours(2)).teacher(teacher).build());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.beforeCommit(false));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(lessonRepository, never()).findAllDatesByTeacherIdBetween(anyInt(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void reserveAndRelease_OutsideTransaction_ShouldUpdateScheduleImmediately() {
+        when(lessonRepository.findAllDatesByTeacherIdAfter(eq(1), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        Lesson lesson = Lesson.builder()
+                .id(1)
+                .date(lessonDate)
+                .teacher(teacher)
+                .build();
+
+        index.reserve(lesson);
+        assertThat(index.overlaps(1, lessonDate.plusMinutes(30))).isTrue();
+
+        index.release(1, lessonDate);
+        assertThat(index.overlaps(1, lessonDate.plusMinutes(30))).isFalse();
+    }
+
+    @Test
+    void reserve_WhenScheduleLoadedAfterFlush_ShouldNotCountLessonTwice() {
+        when(lessonRepository.findAllDatesByTeacherIdAfter(eq(1), any(LocalDateTime.class)))
+                .thenReturn(List.of(lessonDate, lessonDate.plusHours(2)));
+        Lesson lesson = Lesson.builder()
+                .id(1)
+                .date(lessonDate)
+                .teacher(teacher)
+                .build();
+        Lesson nextLesson = Lesson.builder()
+                .id(2)
+                .date(lessonDate.plusHours(2))
+                .teacher(teacher)
+                .build();
+
+        index.reserve(lesson);
+        index.reserve(nextLesson);
+        index.release(1, lessonDate);
+        index.release(1, lessonDate.plusHours(2));
+
+        assertThat(index.overlaps(1, lessonDate)).isFalse();
+        assertThat(index.overlaps(1, lessonDate.plusHours(2))).isFalse();
+    }
+
+    @Test
+    void move_ShouldReplaceReleasedDatesWithReservedOnes() {
+        when(lessonRepository.findAllDatesByTeacherIdAfter(eq(1), any(LocalDateTime.class)))
+                .thenReturn(List.of(lessonDate, lessonDate.plusDays(1)));
+        index.overlaps(1, lessonDate);
+
+        index.move(1, List.of(lessonDate, lessonDate.plusDays(1)), List.of(lessonDate.plusDays(1), lessonDate.plusDays(2)));
+
+        assertThat(index.overlaps(1, lessonDate)).isFalse();
+        assertThat(index.overlaps(1, lessonDate.plusDays(1))).isTrue();
+        assertThat(index.overlaps(1, lessonDate.plusDays(2))).isTrue();
+    }
+
+    @Test
+    void reserve_WhenIndexDisabled_ShouldDoNothing() {
+        properties.getLessonIndex().setEnabled(false);
+        Lesson lesson = Lesson.builder()
+                .id(1)
+                .date(lessonDate)
+                .teacher(teacher)
+                .build();
+
+        index.reserve(lesson);
+
+        verify(lessonRepository, never()).findAllDatesByTeacherIdAfter(anyInt(), any(LocalDateTime.class));
+    }
+}
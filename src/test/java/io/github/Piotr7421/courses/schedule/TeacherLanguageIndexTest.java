@@ -0,0 +1,87 @@
+package io.github.Piotr7421.courses.schedule;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.model.dto.TeacherDto;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TeacherLanguageIndexTest {
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private LessonScheduleIndex lessonScheduleIndex;
+
+    private CoursesProperties properties;
+    private TeacherLanguageIndex index;
+    private LocalDateTime date;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CoursesProperties();
+        index = new TeacherLanguageIndex(teacherRepository, lessonScheduleIndex, properties);
+        date = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        lenient().when(lessonScheduleIndex.isEnabled()).thenReturn(true);
+    }
+
+    @Test
+    void findAvailable_ShouldReturnTeachersSpeakingLanguageWithoutOverlappingLesson() {
+        TeacherDto anna = new TeacherDto(1, "Anna", "Nowak", Set.of(Language.JAVA, Language.PYTHON));
+        TeacherDto jan = new TeacherDto(3, "Jan", "Kowalski", Set.of(Language.C));
+        when(teacherRepository.findAllAsDto()).thenReturn(List.of(
+                anna,
+                new TeacherDto(2, "Ewa", "Lis", Set.of(Language.JAVA)),
+                jan));
+        when(lessonScheduleIndex.overlaps(anyInt(), eq(date))).thenAnswer(invocation -> invocation.getArgument(0).equals(2));
+
+        index.warmUp();
+
+        assertThat(index.findAvailable(Language.JAVA, date)).containsExactly(anna);
+        assertThat(index.findAvailable(Language.C, date)).containsExactly(jan);
+        assertThat(index.findAvailable(Language.COBOL, date)).isEmpty();
+    }
+
+    @Test
+    void putAndRemove_OutsideTransaction_ShouldUpdateIndexImmediately() {
+        when(lessonScheduleIndex.overlaps(anyInt(), eq(date))).thenReturn(false);
+
+        TeacherDto teacher = new TeacherDto(5, "Anna", "Nowak", Set.of(Language.JS));
+        index.put(teacher);
+        assertThat(index.findAvailable(Language.JS, date)).containsExactly(teacher);
+
+        TeacherDto updated = new TeacherDto(5, "Anna", "Nowak", Set.of(Language.CPP));
+        index.put(updated);
+        assertThat(index.findAvailable(Language.JS, date)).isEmpty();
+        assertThat(index.findAvailable(Language.CPP, date)).containsExactly(updated);
+
+        index.remove(5);
+        assertThat(index.findAvailable(Language.CPP, date)).isEmpty();
+    }
+
+    @Test
+    void put_WhenIndexDisabled_ShouldDoNothing() {
+        properties.getTeacherIndex().setEnabled(false);
+
+        index.put(new TeacherDto(5, "Anna", "Nowak", Set.of(Language.JS)));
+
+        assertThat(index.isEnabled()).isFalse();
+        assertThat(index.findAvailable(Language.JS, date)).isEmpty();
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.Piotr7421.courses.schedule;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.TeacherMailboxFullException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class TeacherMailboxTest {
+
+    private CoursesProperties properties;
+    private MeterRegistry meterRegistry;
+    private TeacherMailbox mailbox;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CoursesProperties();
+        properties.getTeacherMailbox().setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (mailbox != null) {
+            mailbox.destroy();
+        }
+    }
+
+    @Test
+    void submit_WhenDisabled_ShouldRunOnCallerThread() {
+        properties.getTeacherMailbox().setEnabled(false);
+        mailbox = new TeacherMailbox(properties, meterRegistry);
+
+        CompletableFuture<Thread> result = mailbox.submit(1, Thread::currentThread);
+
+        assertThat(result).isCompletedWithValue(Thread.currentThread());
+        assertThat(mailbox.isWriter(1)).isFalse();
+    }
+
+    @Test
+    void submit_ShouldRunCommandsForOneTeacherOnItsSingleWriter() {
+        mailbox = new TeacherMailbox(properties, meterRegistry);
+        List<Integer> order = new ArrayList<>();
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            int command = i;
+            results.add(mailbox.submit(7, () -> {
+                order.add(command);
+                return mailbox.isWriter(7) && !mailbox.isWriter(8);
+            }));
+        }
+
+        assertThat(results).allSatisfy(result -> assertThat(result.join()).isTrue());
+        assertThat(order).isSorted().hasSize(50);
+        assertThat(mailbox.isWriter(7)).isFalse();
+    }
+
+    @Test
+    void submit_WhenMailboxIsFull_ShouldRejectAndReportQueueDepth() throws Exception {
+        properties.getTeacherMailbox().setStripes(1);
+        properties.getTeacherMailbox().setCapacity(1);
+        mailbox = new TeacherMailbox(properties, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> running = mailbox.submit(1, () -> {
+            started.countDown();
+            await(release);
+            return 1;
+        });
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<Integer> queued = mailbox.submit(2, () -> 2);
+
+        assertThat(meterRegistry.get("courses.teacher.mailbox.depth").tag("stripe", "0").gauge().value()).isEqualTo(1);
+        assertThatExceptionOfType(TeacherMailboxFullException.class)
+                .isThrownBy(() -> mailbox.submit(3, () -> 3))
+                .withMessage("Too many pending operations for this teacher - try again later");
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
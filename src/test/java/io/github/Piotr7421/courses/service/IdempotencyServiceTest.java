@@ -0,0 +1,205 @@
+package io.github.Piotr7421.courses.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.IdempotencyKeyInProgressException;
+import io.github.Piotr7421.courses.exception.IdempotencyKeyReuseException;
+import io.github.Piotr7421.courses.exception.TeacherNotFoundException;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.model.projection.StoredResponse;
+import io.github.Piotr7421.courses.repository.IdempotencyKeyRepository;
+
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final TypeReference<LessonDto> LESSON = new TypeReference<>() {
+    };
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private ObjectMapper objectMapper;
+    private IdempotencyService idempotencyService;
+    private CreateLessonCommand command;
+    private LessonDto lesson;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        idempotencyService = new IdempotencyService(idempotencyKeyRepository, objectMapper,
+                new CoursesProperties(), new SimpleMeterRegistry());
+        LocalDateTime date = LocalDateTime.now().plusDays(1).withSecond(0).withNano(0);
+        command = CreateLessonCommand.builder().date(date).teacherId(1).studentId(2).build();
+        lesson = new LessonDto(7, date, 1, 2);
+    }
+
+    @Test
+    void execute_WhenKeyIsRepeated_ShouldReplayResponseWithoutRunningActionAgain() {
+        reserveSucceeds();
+        AtomicInteger executions = new AtomicInteger();
+
+        LessonDto first = idempotencyService.execute("key-1", "lessons", command, LESSON, () -> {
+            executions.incrementAndGet();
+            return lesson;
+        });
+        LessonDto second = idempotencyService.execute("key-1", "lessons", command, LESSON, () -> {
+            executions.incrementAndGet();
+            return lesson;
+        });
+
+        assertThat(first).isEqualTo(lesson);
+        assertThat(second).isEqualTo(lesson);
+        assertThat(executions).hasValue(1);
+        verify(idempotencyKeyRepository).reserve(eq("lessons"), eq("key-1"), any(), any(), any());
+        verify(idempotencyKeyRepository).saveResponse(eq("lessons"), eq("key-1"), any());
+    }
+
+    @Test
+    void execute_WhenResponseWasStoredByAnotherInstance_ShouldReplayItFromRepository() throws Exception {
+        String fingerprint = storedFingerprint();
+        when(idempotencyKeyRepository.find(eq("lessons"), eq("key-1"), any())).thenReturn(
+                Optional.of(new StoredResponse(fingerprint, objectMapper.writeValueAsString(lesson))));
+
+        LessonDto result = idempotencyService.execute("key-1", "lessons", command, LESSON, () -> {
+            throw new AssertionError("action should not run");
+        });
+
+        assertThat(result).isEqualTo(lesson);
+        verify(idempotencyKeyRepository, never()).reserve(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenKeyIsReservedByRequestOnAnotherInstance_ShouldThrowWithoutRunningAction() throws Exception {
+        when(idempotencyKeyRepository.find(eq("lessons"), eq("key-1"), any())).thenReturn(
+                Optional.of(new StoredResponse(storedFingerprint(), null)));
+
+        assertThatExceptionOfType(IdempotencyKeyInProgressException.class)
+                .isThrownBy(() -> idempotencyService.execute("key-1", "lessons", command, LESSON, () -> {
+                    throw new AssertionError("action should not run");
+                }))
+                .withMessage("A request with this idempotency key is still being processed");
+    }
+
+    @Test
+    void execute_WhenResponseCannotBeStored_ShouldFail() {
+        when(idempotencyKeyRepository.reserve(eq("lessons"), eq("key-1"), any(), any(), any())).thenReturn(true);
+        when(idempotencyKeyRepository.saveResponse(eq("lessons"), eq("key-1"), any()))
+                .thenThrow(new DataAccessResourceFailureException("Connection lost"));
+
+        assertThatExceptionOfType(DataAccessResourceFailureException.class)
+                .isThrownBy(() -> idempotencyService.execute("key-1", "lessons", command, LESSON, () -> lesson));
+    }
+
+    @Test
+    void execute_WhenKeyIsReusedWithDifferentRequest_ShouldThrowIdempotencyKeyReuseException() {
+        reserveSucceeds();
+        idempotencyService.execute("key-1", "lessons", command, LESSON, () -> lesson);
+        CreateLessonCommand other = CreateLessonCommand.builder()
+                .date(command.getDate().plusHours(2))
+                .teacherId(1)
+                .studentId(2)
+                .build();
+
+        assertThatExceptionOfType(IdempotencyKeyReuseException.class)
+                .isThrownBy(() -> idempotencyService.execute("key-1", "lessons", other, LESSON, () -> lesson));
+    }
+
+    @Test
+    void executeAsync_WhenDuplicateArrivesWhileFirstIsRunning_ShouldJoinFirstExecution() {
+        reserveSucceeds();
+        CompletableFuture<LessonDto> pending = new CompletableFuture<>();
+        AtomicInteger executions = new AtomicInteger();
+
+        CompletableFuture<LessonDto> first = idempotencyService.executeAsync("key-1", "lessons", command, LESSON, () -> {
+            executions.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<LessonDto> duplicate = idempotencyService.executeAsync("key-1", "lessons", command, LESSON, () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(lesson);
+        });
+        assertThat(duplicate).isNotDone();
+        pending.complete(lesson);
+
+        assertThat(first.join()).isEqualTo(lesson);
+        assertThat(duplicate.join()).isEqualTo(lesson);
+        assertThat(executions).hasValue(1);
+        verify(idempotencyKeyRepository, times(1)).saveResponse(any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenActionFails_ShouldReleaseKeyAndAllowRetry() {
+        reserveSucceeds();
+        assertThatExceptionOfType(TeacherNotFoundException.class)
+                .isThrownBy(() -> idempotencyService.execute("key-1", "lessons", command, LESSON, () -> {
+                    throw new TeacherNotFoundException("Teacher with id=1 not found");
+                }));
+
+        LessonDto retried = idempotencyService.execute("key-1", "lessons", command, LESSON, () -> lesson);
+
+        assertThat(retried).isEqualTo(lesson);
+        verify(idempotencyKeyRepository).release("lessons", "key-1");
+        verify(idempotencyKeyRepository, times(1)).saveResponse(any(), any(), any());
+    }
+
+    @Test
+    void execute_WhenKeyIsMissing_ShouldRunActionEveryTime() {
+        AtomicInteger executions = new AtomicInteger();
+
+        idempotencyService.execute(null, "lessons", command, LESSON, () -> {
+            executions.incrementAndGet();
+            return lesson;
+        });
+        idempotencyService.execute(null, "lessons", command, LESSON, () -> {
+            executions.incrementAndGet();
+            return lesson;
+        });
+
+        assertThat(executions).hasValue(2);
+        verify(idempotencyKeyRepository, never()).find(any(), any(), any());
+    }
+
+    @Test
+    void purgeExpired_WhenBatchIsFull_ShouldDeleteUntilBatchComesBackShort() {
+        when(idempotencyKeyRepository.deleteCreatedBefore(any(), eq(1000))).thenReturn(1000, 1000, 7);
+
+        idempotencyService.purgeExpired();
+
+        verify(idempotencyKeyRepository, times(3)).deleteCreatedBefore(any(), eq(1000));
+    }
+
+    private void reserveSucceeds() {
+        when(idempotencyKeyRepository.reserve(eq("lessons"), eq("key-1"), any(), any(), any())).thenReturn(true);
+        when(idempotencyKeyRepository.saveResponse(eq("lessons"), eq("key-1"), any())).thenReturn(1);
+    }
+
+    private String storedFingerprint() throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(command));
+        return HexFormat.of().formatHex(digest);
+    }
+}
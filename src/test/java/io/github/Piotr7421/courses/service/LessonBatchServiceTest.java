@@ -0,0 +1,256 @@
+package io.github.Piotr7421.courses.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.PessimisticLockingFailureException;
+import io.github.Piotr7421.courses.common.ConflictPolicy;
+import io.github.Piotr7421.courses.common.Recurrence;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.OverlappingLessonException;
+import io.github.Piotr7421.courses.exception.TeacherLockTimeoutException;
+import io.github.Piotr7421.courses.model.Lesson;
+import io.github.Piotr7421.courses.model.Student;
+import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.command.CreateLessonSeriesCommand;
+import io.github.Piotr7421.courses.model.dto.LessonBatchItemDto;
+import io.github.Piotr7421.courses.repository.LessonRepository;
+import io.github.Piotr7421.courses.repository.LessonSlotRepository;
+import io.github.Piotr7421.courses.repository.StudentRepository;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.LessonScheduleIndex;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LessonBatchServiceTest {
+
+    @Mock
+    private LessonRepository lessonRepository;
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private LessonSlotRepository lessonSlotRepository;
+
+    @Mock
+    private LessonScheduleIndex lessonScheduleIndex;
+
+    @Spy
+    private CoursesProperties coursesProperties = new CoursesProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private LessonBatchService lessonBatchService;
+
+    private Teacher teacher;
+    private Teacher otherTeacher;
+    private Student student;
+    private LocalDateTime date;
+
+    @BeforeEach
+    void setUp() {
+        teacher = Teacher.builder()
+                .id(1)
+                .build();
+        otherTeacher = Teacher.builder()
+                .id(2)
+                .build();
+        student = Student.builder()
+                .id(1)
+                .build();
+        date = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void saveAll_HappyPath_ShouldCreateAllLessons() {
+        List<CreateLessonCommand> commands = List.of(command(2, date), command(1, date), command(1, date.plusHours(1)));
+        when(studentRepository.findAllById(List.of(1))).thenReturn(List.of(student));
+        when(teacherRepository.findWithPessimisticLockingById(1)).thenReturn(Optional.of(teacher));
+        when(teacherRepository.findWithPessimisticLockingById(2)).thenReturn(Optional.of(otherTeacher));
+        when(lessonRepository.findAllDatesByTeacherIdBetween(anyInt(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        when(lessonRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<LessonBatchItemDto> result = lessonBatchService.saveAll(commands);
+
+        assertThat(result).hasSize(3);
+        assertThat(result).allMatch(LessonBatchItemDto::isCreated);
+        assertThat(result.get(0).getLesson().getTeacherId()).isEqualTo(2);
+        assertThat(result.get(2).getLesson().getDate()).isEqualTo(date.plusHours(1));
+        verify(lessonRepository).findAllDatesByTeacherIdBetween(1, date.minusHours(1), date.plusHours(2));
+        verify(lessonRepository).findAllDatesByTeacherIdBetween(2, date.minusHours(1), date.plusHours(1));
+        verify(lessonScheduleIndex, times(3)).reserveChecked(any(Lesson.class));
+    }
+
+    @Test
+    void saveAll_ShouldLockTeachersInAscendingIdOrder() {
+        List<CreateLessonCommand> commands = List.of(command(2, date), command(1, date));
+        when(studentRepository.findAllById(List.of(1))).thenReturn(List.of(student));
+        when(teacherRepository.findWithPessimisticLockingById(anyInt())).thenReturn(Optional.of(teacher));
+        when(lessonRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        lessonBatchService.saveAll(commands);
+
+        InOrder inOrder = inOrder(teacherRepository);
+        inOrder.verify(teacherRepository).findWithPessimisticLockingById(1);
+        inOrder.verify(teacherRepository).findWithPessimisticLockingById(2);
+    }
+
+    @Test
+    void saveAll_WhenSlotsCollide_ShouldRejectOverlappingItems() {
+        List<CreateLessonCommand> commands = List.of(
+                command(1, date),
+                command(1, date.plusMinutes(30)),
+                command(1, date.plusHours(3)));
+        when(studentRepository.findAllById(List.of(1))).thenReturn(List.of(student));
+        when(teacherRepository.findWithPessimisticLockingById(1)).thenReturn(Optional.of(teacher));
+        when(lessonRepository.findAllDatesByTeacherIdBetween(eq(1), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(date.plusHours(3).plusMinutes(15)));
+        when(lessonRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<LessonBatchItemDto> result = lessonBatchService.saveAll(commands);
+
+        assertThat(result.get(0).isCreated()).isTrue();
+        assertThat(result.get(1).isCreated()).isFalse();
+        assertThat(result.get(1).getMessage()).isEqualTo("Lesson overlaps with another lesson for the same teacher.");
+        assertThat(result.get(2).isCreated()).isFalse();
+        verify(lessonScheduleIndex, times(1)).reserveChecked(any(Lesson.class));
+    }
+
+    @Test
+    void saveAll_WhenLockFreeAndSlotTakenConcurrently_ShouldRejectOnlyThatItem() {
+        coursesProperties.getLessonSlot().setLockFree(true);
+        List<CreateLessonCommand> commands = List.of(command(1, date), command(1, date.plusHours(3)));
+        when(studentRepository.findAllById(List.of(1))).thenReturn(List.of(student));
+        when(teacherRepository.findById(1)).thenReturn(Optional.of(teacher));
+        when(lessonRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher."))
+                .when(lessonSlotRepository).claimAll(anyList());
+        doThrow(new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher."))
+                .when(lessonSlotRepository).claim(argThat(lesson -> lesson.getDate().equals(date)));
+
+        List<LessonBatchItemDto> result = lessonBatchService.saveAll(commands);
+
+        assertThat(result.get(0).isCreated()).isFalse();
+        assertThat(result.get(0).getMessage()).isEqualTo("Lesson overlaps with another lesson for the same teacher.");
+        assertThat(result.get(1).isCreated()).isTrue();
+        verify(lessonRepository).deleteAll(argThat(lessons -> lessons.iterator().next().getDate().equals(date)));
+        verify(lessonScheduleIndex, times(1)).reserveChecked(any(Lesson.class));
+    }
+
+    @Test
+    void saveAll_WhenTeacherOrStudentMissing_ShouldRejectOnlyThoseItems() {
+        List<CreateLessonCommand> commands = List.of(command(1, date), command(3, date), command(1, 7, date.plusHours(2)));
+        when(studentRepository.findAllById(List.of(1, 7))).thenReturn(List.of(student));
+        when(teacherRepository.findWithPessimisticLockingById(1)).thenReturn(Optional.of(teacher));
+        when(teacherRepository.findWithPessimisticLockingById(3)).thenReturn(Optional.empty());
+        when(lessonRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<LessonBatchItemDto> result = lessonBatchService.saveAll(commands);
+
+        assertThat(result.get(0).isCreated()).isTrue();
+        assertThat(result.get(1).getMessage()).isEqualTo("Teacher with id=3 not found");
+        assertThat(result.get(2).getMessage()).isEqualTo("Student with id=7 not found");
+    }
+
+    @Test
+    void saveAll_WhenTeacherLockTimesOut_ShouldThrowTeacherLockTimeoutException() {
+        when(teacherRepository.findWithPessimisticLockingById(1))
+                .thenThrow(new PessimisticLockingFailureException("DB lock"));
+        List<CreateLessonCommand> commands = List.of(command(1, date));
+
+        assertThatExceptionOfType(TeacherLockTimeoutException.class)
+                .isThrownBy(() -> lessonBatchService.saveAll(commands))
+                .withMessage("Could not acquire lock on teacher - operation timed out");
+
+        verify(lessonRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void saveSeries_ShouldExpandRecurrenceAndValidateWithSingleRangeQuery() {
+        CreateLessonSeriesCommand command = CreateLessonSeriesCommand.builder()
+                .date(date)
+                .teacherId(1)
+                .studentId(1)
+                .recurrence(Recurrence.WEEKLY)
+                .interval(2)
+                .occurrences(3)
+                .build();
+        when(studentRepository.findAllById(List.of(1))).thenReturn(List.of(student));
+        when(teacherRepository.findWithPessimisticLockingById(1)).thenReturn(Optional.of(teacher));
+        when(lessonRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<LessonBatchItemDto> result = lessonBatchService.saveSeries(command);
+
+        assertThat(result).extracting(item -> item.getLesson().getDate())
+                .containsExactly(date, date.plusWeeks(2), date.plusWeeks(4));
+        verify(lessonRepository).findAllDatesByTeacherIdBetween(1, date.minusHours(1), date.plusWeeks(4).plusHours(1));
+        verify(teacherRepository, times(1)).findWithPessimisticLockingById(1);
+    }
+
+    @Test
+    void saveSeries_WhenOccurrenceOverlapsAndPolicyIsFail_ShouldThrowBeforeSaving() {
+        CreateLessonSeriesCommand command = CreateLessonSeriesCommand.builder()
+                .date(date)
+                .teacherId(1)
+                .studentId(1)
+                .recurrence(Recurrence.DAILY)
+                .occurrences(3)
+                .onConflict(ConflictPolicy.FAIL)
+                .build();
+        when(studentRepository.findAllById(List.of(1))).thenReturn(List.of(student));
+        when(teacherRepository.findWithPessimisticLockingById(1)).thenReturn(Optional.of(teacher));
+        when(lessonRepository.findAllDatesByTeacherIdBetween(eq(1), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(date.plusDays(1).plusMinutes(30)));
+
+        assertThatExceptionOfType(OverlappingLessonException.class)
+                .isThrownBy(() -> lessonBatchService.saveSeries(command));
+
+        verify(lessonRepository, never()).saveAll(anyList());
+        verify(lessonScheduleIndex, never()).reserveChecked(any(Lesson.class));
+    }
+
+    private CreateLessonCommand command(int teacherId, LocalDateTime lessonDate) {
+        return command(teacherId, 1, lessonDate);
+    }
+
+    private CreateLessonCommand command(int teacherId, int studentId, LocalDateTime lessonDate) {
+        return CreateLessonCommand.builder()
+                .teacherId(teacherId)
+                .studentId(studentId)
+                .date(lessonDate)
+                .build();
+    }
+}
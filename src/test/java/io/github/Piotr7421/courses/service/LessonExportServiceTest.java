@@ -0,0 +1,61 @@
+package io.github.Piotr7421.courses.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.repository.LessonRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LessonExportServiceTest {
+
+    @Mock
+    private LessonRepository lessonRepository;
+
+    private LessonExportService lessonExportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        lessonExportService = new LessonExportService(lessonRepository, objectMapper);
+    }
+
+    @Test
+    void export_ShouldWriteOneJsonLinePerLesson() throws Exception {
+        LocalDateTime date = LocalDateTime.of(2030, 1, 15, 10, 30);
+        when(lessonRepository.streamAllForExport()).thenReturn(Stream.of(
+                new LessonDto(1, date, 2, 3),
+                new LessonDto(2, date.plusHours(1), 2, 4)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        lessonExportService.export(outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "{\"id\":1,\"date\":\"15-01-2030 10:30\",\"teacherId\":2,\"studentId\":3}\n"
+                        + "{\"id\":2,\"date\":\"15-01-2030 11:30\",\"teacherId\":2,\"studentId\":4}\n");
+        verify(lessonRepository).streamAllForExport();
+    }
+
+    @Test
+    void export_NoLessons_ShouldWriteNothing() throws Exception {
+        when(lessonRepository.streamAllForExport()).thenReturn(Stream.empty());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        lessonExportService.export(outputStream);
+
+        assertThat(outputStream.size()).isZero();
+    }
+}
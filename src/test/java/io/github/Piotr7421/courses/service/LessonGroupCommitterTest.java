@@ -0,0 +1,151 @@
+package io.github.Piotr7421.courses.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.OverlappingLessonException;
+import io.github.Piotr7421.courses.exception.StudentNotFoundException;
+import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
+import io.github.Piotr7421.courses.model.dto.LessonBatchItemDto;
+import io.github.Piotr7421.courses.model.dto.LessonDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LessonGroupCommitterTest {
+
+    @Mock
+    private LessonBatchService lessonBatchService;
+
+    @Mock
+    private LessonService lessonService;
+
+    private CoursesProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private LessonGroupCommitter committer;
+    private List<CreateLessonCommand> commands;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CoursesProperties();
+        properties.getGroupCommit().setEnabled(true);
+        properties.getGroupCommit().setWindow(Duration.ofSeconds(5));
+        properties.getGroupCommit().setMaxItems(3);
+        meterRegistry = new SimpleMeterRegistry();
+        LocalDateTime date = LocalDateTime.now().plusDays(1);
+        commands = List.of(
+                CreateLessonCommand.builder().date(date).teacherId(1).studentId(1).build(),
+                CreateLessonCommand.builder().date(date).teacherId(2).studentId(99).build(),
+                CreateLessonCommand.builder().date(date.plusHours(2)).teacherId(1).studentId(1).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (committer != null) {
+            committer.destroy();
+        }
+    }
+
+    @Test
+    void submit_ShouldCommitRequestsOfOneWindowTogetherAndCompleteEachCaller() throws Exception {
+        LessonDto first = new LessonDto(1, commands.get(0).getDate(), 1, 1);
+        LessonDto third = new LessonDto(2, commands.get(2).getDate(), 1, 1);
+        when(lessonBatchService.saveAll(commands)).thenReturn(List.of(
+                LessonBatchItemDto.created(0, first),
+                LessonBatchItemDto.rejected(1, new StudentNotFoundException("Student with id=99 not found")),
+                LessonBatchItemDto.created(2, third)));
+        committer = new LessonGroupCommitter(lessonBatchService, lessonService, properties, meterRegistry);
+
+        List<CompletableFuture<LessonDto>> results = commands.stream()
+                .map(committer::submit)
+                .toList();
+
+        assertThat(results.get(0).get(5, TimeUnit.SECONDS)).isEqualTo(first);
+        assertThat(results.get(2).get(5, TimeUnit.SECONDS)).isEqualTo(third);
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> results.get(1).get(5, TimeUnit.SECONDS))
+                .withCauseInstanceOf(StudentNotFoundException.class);
+        verify(lessonBatchService, times(1)).saveAll(anyList());
+        assertThat(meterRegistry.get("courses.lesson.group.commit.size").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void flush_WhenGroupTransactionFails_ShouldSaveEachLessonAlone() {
+        properties.getGroupCommit().setEnabled(false);
+        committer = new LessonGroupCommitter(lessonBatchService, lessonService, properties, meterRegistry);
+        LessonDto first = new LessonDto(1, commands.get(0).getDate(), 1, 1);
+        when(lessonBatchService.saveAll(commands)).thenThrow(new CannotAcquireLockException("lock wait timeout"));
+        when(lessonService.save(commands.get(0))).thenReturn(first);
+        when(lessonService.save(commands.get(1))).thenThrow(new StudentNotFoundException("Student with id=99 not found"));
+        when(lessonService.save(commands.get(2)))
+                .thenThrow(new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher."));
+        List<LessonGroupCommitter.PendingLesson> group = commands.stream()
+                .map(command -> new LessonGroupCommitter.PendingLesson(command, new CompletableFuture<>()))
+                .toList();
+
+        committer.flush(group);
+
+        assertThat(group.get(0).result()).isCompletedWithValue(first);
+        assertThat(group.get(1).result()).isCompletedExceptionally();
+        assertThat(group.get(2).result()).isCompletedExceptionally();
+    }
+
+    @Test
+    void submit_WhenFlushFailsUnexpectedly_ShouldFailThatGroupAndKeepFlushing() throws Exception {
+        properties.getGroupCommit().setWindow(Duration.ofMillis(10));
+        LessonDto first = new LessonDto(1, commands.get(0).getDate(), 1, 1);
+        when(lessonBatchService.saveAll(anyList()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(LessonBatchItemDto.created(0, first)));
+        committer = new LessonGroupCommitter(lessonBatchService, lessonService, properties, meterRegistry);
+
+        List<CompletableFuture<LessonDto>> broken = commands.stream()
+                .map(committer::submit)
+                .toList();
+        for (CompletableFuture<LessonDto> result : broken) {
+            assertThatExceptionOfType(ExecutionException.class)
+                    .isThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .withCauseInstanceOf(IndexOutOfBoundsException.class);
+        }
+
+        assertThat(committer.submit(commands.get(0)).get(5, TimeUnit.SECONDS)).isEqualTo(first);
+    }
+
+    @Test
+    void destroy_WhenRequestsArePending_ShouldFailThem() {
+        committer = new LessonGroupCommitter(lessonBatchService, lessonService, properties, meterRegistry);
+        CompletableFuture<LessonDto> result = committer.submit(commands.get(0));
+
+        committer.destroy();
+
+        assertThatExceptionOfType(ExecutionException.class)
+                .isThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .withCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void isEnabled_WhenGroupCommitDisabled_ShouldReturnFalse() {
+        properties.getGroupCommit().setEnabled(false);
+        committer = new LessonGroupCommitter(lessonBatchService, lessonService, properties, meterRegistry);
+
+        assertThat(committer.isEnabled()).isFalse();
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.Piotr7421.courses.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,8 +9,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import io.github.Piotr7421.courses.common.Cursor;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.exception.InvalidCursorException;
 import io.github.Piotr7421.courses.exception.LessonAlreadyStartedException;
 import io.github.Piotr7421.courses.exception.LessonNotFoundException;
 import io.github.Piotr7421.courses.exception.OverlappingLessonException;
@@ -22,9 +29,13 @@ import io.github.Piotr7421.courses.model.Teacher;
 import io.github.Piotr7421.courses.model.command.CreateLessonCommand;
 import io.github.Piotr7421.courses.model.command.UpdateLessonCommand;
 import io.github.Piotr7421.courses.model.dto.LessonDto;
+import io.github.Piotr7421.courses.model.dto.PageDto;
 import io.github.Piotr7421.courses.repository.LessonRepository;
+import io.github.Piotr7421.courses.repository.LessonSlotRepository;
 import io.github.Piotr7421.courses.repository.StudentRepository;
 import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.LessonScheduleIndex;
+import io.github.Piotr7421.courses.schedule.TeacherMailbox;
 
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
@@ -37,6 +48,7 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -53,6 +65,21 @@ class LessonServiceTest {
     @Mock
     private StudentRepository studentRepository;
 
+    @Mock
+    private LessonSlotRepository lessonSlotRepository;
+
+    @Mock
+    private LessonScheduleIndex lessonScheduleIndex;
+
+    @Spy
+    private CoursesProperties coursesProperties = new CoursesProperties();
+
+    @Mock
+    private TeacherMailbox teacherMailbox;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private LessonService lessonService;
 
@@ -108,46 +135,96 @@ class LessonServiceTest {
         List<LessonDto> expected = lessons.stream()
                 .map(LessonMapper::mapToDto)
                 .toList();
-        when(lessonRepository.findAll()).thenReturn(lessons);
+        when(lessonRepository.findAllAsDto()).thenReturn(expected);
 
         List<LessonDto> result = lessonService.findAll();
 
         assertThat(result).isEqualTo(expected);
         assertThat(result).hasSize(2);
-        verify(lessonRepository).findAll();
+        verify(lessonRepository).findAllAsDto();
     }
 
     @Test
     void findAll_NoLessons_ShouldReturnEmptyList() {
-        when(lessonRepository.findAll()).thenReturn(Collections.emptyList());
+        when(lessonRepository.findAllAsDto()).thenReturn(Collections.emptyList());
 
         List<LessonDto> result = lessonService.findAll();
 
         assertThat(result).isEmpty();
-        verify(lessonRepository).findAll();
+        verify(lessonRepository).findAllAsDto();
+    }
+
+    @Test
+    void findPage_WhenMoreRowsThanLimit_ShouldReturnDateAndIdCursor() {
+        Lesson laterLesson = Lesson.builder()
+                .id(2)
+                .date(lesson.getDate().plusHours(2))
+                .teacher(teacher)
+                .student(student)
+                .build();
+        when(lessonRepository.findDtoPage(Limit.of(2)))
+                .thenReturn(List.of(lessonDto, LessonMapper.mapToDto(laterLesson)));
+
+        PageDto<LessonDto> result = lessonService.findPage(1, null);
+
+        assertThat(result.getItems()).containsExactly(lessonDto);
+        assertThat(Cursor.decode(result.getNextCursor())).isEqualTo(Cursor.of(lesson.getDate(), lessonId));
+    }
+
+    @Test
+    void findPage_WhenAfterCursorGiven_ShouldSeekPastDateAndId() {
+        Cursor cursor = Cursor.of(lesson.getDate(), lessonId);
+        when(lessonRepository.findDtoPageAfter(lesson.getDate(), lessonId, Limit.of(6))).thenReturn(Collections.emptyList());
+
+        PageDto<LessonDto> result = lessonService.findPage(5, cursor.encode());
+
+        assertThat(result.getItems()).isEmpty();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void findPage_WhenCursorWithoutDate_ShouldThrowInvalidCursorException() {
+        String cursor = Cursor.of(lessonId).encode();
+
+        assertThatExceptionOfType(InvalidCursorException.class)
+                .isThrownBy(() -> lessonService.findPage(5, cursor))
+                .withMessage("Invalid page cursor");
+
+        verify(lessonRepository, never()).findDtoPageAfter(any(LocalDateTime.class), any(Integer.class), any(Limit.class));
     }
 
     @Test
     void findById_ShouldReturnLessonDto() {
-        when(lessonRepository.findById(lessonId)).thenReturn(Optional.of(lesson));
+        when(lessonRepository.findDtoById(lessonId)).thenReturn(Optional.of(lessonDto));
 
         LessonDto result = lessonService.findById(lessonId);
 
         assertThat(result).isEqualTo(lessonDto);
-        verify(lessonRepository).findById(lessonId);
+        verify(lessonRepository).findDtoById(lessonId);
     }
 
     @Test
     void findById_WhenLessonNotFound_ShouldThrowException() {
         String exceptionMsg = MessageFormat
                 .format("Lesson with id={0} not found", lessonId);
-        when(lessonRepository.findById(lessonId)).thenReturn(Optional.empty());
+        when(lessonRepository.findDtoById(lessonId)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(LessonNotFoundException.class)
                 .isThrownBy(() -> lessonService.findById(lessonId))
                 .withMessage(exceptionMsg);
 
-        verify(lessonRepository).findById(lessonId);
+        verify(lessonRepository).findDtoById(lessonId);
+    }
+
+    @Test
+    void findVersion_WhenLessonNotFound_ShouldThrowException() {
+        when(lessonRepository.findVersionById(lessonId)).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(LessonNotFoundException.class)
+                .isThrownBy(() -> lessonService.findVersion(lessonId))
+                .withMessage(MessageFormat.format("Lesson with id={0} not found", lessonId));
+
+        verify(lessonRepository, never()).findVersionedById(lessonId);
     }
 
     @Test
@@ -170,6 +247,48 @@ class LessonServiceTest {
         assertThat(captured.getDate()).isEqualTo(createLessonCommand.getDate());
         assertThat(captured.getTeacher().getId()).isEqualTo(createLessonCommand.getTeacherId());
         assertThat(captured.getStudent().getId()).isEqualTo(createLessonCommand.getStudentId());
+        verify(lessonSlotRepository, never()).claim(any(Lesson.class));
+    }
+
+    @Test
+    void save_WhenLockFree_ShouldNotLockTeacher() {
+        coursesProperties.getLessonSlot().setLockFree(true);
+        when(teacherRepository.findById(teacherId)).thenReturn(Optional.of(teacher));
+        when(studentRepository.findById(studentId)).thenReturn(Optional.of(student));
+        when(lessonRepository.save(any(Lesson.class))).thenReturn(lesson);
+
+        lessonService.save(createLessonCommand);
+
+        verify(teacherRepository, never()).findWithPessimisticLockingById(any(Integer.class));
+        verify(lessonSlotRepository).claim(lesson);
+    }
+
+    @Test
+    void save_WhenRunningOnTeacherMailbox_ShouldNotLockTeacher() {
+        when(teacherMailbox.isWriter(teacherId)).thenReturn(true);
+        when(teacherRepository.findById(teacherId)).thenReturn(Optional.of(teacher));
+        when(studentRepository.findById(studentId)).thenReturn(Optional.of(student));
+        when(lessonRepository.save(any(Lesson.class))).thenReturn(lesson);
+
+        lessonService.save(createLessonCommand);
+
+        verify(teacherRepository, never()).findWithPessimisticLockingById(any(Integer.class));
+        verify(lessonSlotRepository, never()).claim(any(Lesson.class));
+    }
+
+    @Test
+    void save_WhenSlotAlreadyClaimed_ShouldThrowOverlappingLessonException() {
+        coursesProperties.getLessonSlot().setLockFree(true);
+        when(teacherRepository.findById(teacherId)).thenReturn(Optional.of(teacher));
+        when(studentRepository.findById(studentId)).thenReturn(Optional.of(student));
+        when(lessonRepository.save(any(Lesson.class))).thenReturn(lesson);
+        doThrow(new OverlappingLessonException("Lesson overlaps with another lesson for the same teacher."))
+                .when(lessonSlotRepository).claim(lesson);
+
+        assertThatExceptionOfType(OverlappingLessonException.class)
+                .isThrownBy(() -> lessonService.save(createLessonCommand));
+
+        verify(lessonScheduleIndex, never()).reserve(any(Lesson.class));
     }
 
     @Test
@@ -201,6 +320,7 @@ class LessonServiceTest {
                 .isThrownBy(() -> lessonService.save(createLessonCommand))
                 .withMessage("Could not acquire lock on teacher - operation timed out");
 
+        assertThat(meterRegistry.timer("courses.teacher.lock.wait", "state", "ERROR").count()).isEqualTo(1);
         verify(teacherRepository).findWithPessimisticLockingById(teacherId);
         verify(lessonRepository, never()).save(any(Lesson.class));
     }
@@ -239,6 +359,37 @@ class LessonServiceTest {
         verify(lessonRepository, never()).save(any(Lesson.class));
     }
 
+    @Test
+    void save_WhenScheduleIndexEnabled_ShouldCheckOverlapInIndex() {
+        when(teacherRepository.findWithPessimisticLockingById(teacherId)).thenReturn(Optional.of(teacher));
+        when(lessonScheduleIndex.isEnabled()).thenReturn(true);
+        when(lessonScheduleIndex.overlaps(teacherId, createLessonCommand.getDate())).thenReturn(false);
+        when(studentRepository.findById(studentId)).thenReturn(Optional.of(student));
+        when(lessonRepository.save(any(Lesson.class))).thenReturn(lesson);
+
+        LessonDto result = lessonService.save(createLessonCommand);
+
+        assertThat(result.getId()).isEqualTo(lessonDto.getId());
+        verify(lessonScheduleIndex).overlaps(teacherId, createLessonCommand.getDate());
+        verify(lessonRepository, never()).existsByTeacherAndDateAfterAndDateBefore(any(Teacher.class), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(lessonScheduleIndex).reserve(lesson);
+    }
+
+    @Test
+    void save_WhenScheduleIndexReportsOverlap_ShouldThrowOverlappingLessonException() {
+        when(teacherRepository.findWithPessimisticLockingById(teacherId)).thenReturn(Optional.of(teacher));
+        when(lessonScheduleIndex.isEnabled()).thenReturn(true);
+        when(lessonScheduleIndex.overlaps(teacherId, createLessonCommand.getDate())).thenReturn(true);
+
+        assertThatExceptionOfType(OverlappingLessonException.class)
+                .isThrownBy(() -> lessonService.save(createLessonCommand))
+                .withMessage("Lesson overlaps with another lesson for the same teacher.");
+
+        verify(lessonRepository, never()).existsByTeacherAndDateAfterAndDateBefore(any(Teacher.class), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(lessonRepository, never()).save(any(Lesson.class));
+        verify(lessonScheduleIndex, never()).reserve(any(Lesson.class));
+    }
+
     @Test
     void update_HappyPath_ShouldUpdateLesson() {
         when(lessonRepository.findWithLockingById(lessonId)).thenReturn(Optional.of(lesson));
@@ -254,6 +405,23 @@ class LessonServiceTest {
         verify(teacherRepository).findWithPessimisticLockingById(teacherId);
         verify(lessonRepository).existsByTeacherAndDateAfterAndDateBefore(any(Teacher.class), any(LocalDateTime.class), any(LocalDateTime.class));
         verify(lessonRepository).saveAndFlush(lesson);
+        verify(lessonSlotRepository).release(lessonId);
+        verify(lessonSlotRepository, never()).claim(any(Lesson.class));
+    }
+
+    @Test
+    void update_HappyPath_ShouldMoveLessonInScheduleIndex() {
+        LocalDateTime previousDate = lesson.getDate();
+        when(lessonRepository.findWithLockingById(lessonId)).thenReturn(Optional.of(lesson));
+        when(teacherRepository.findWithPessimisticLockingById(teacherId)).thenReturn(Optional.of(teacher));
+        when(lessonScheduleIndex.isEnabled()).thenReturn(true);
+        when(lessonScheduleIndex.overlaps(teacherId, updateLessonCommand.getDate())).thenReturn(false);
+        when(lessonRepository.saveAndFlush(lesson)).thenAnswer(invocation -> invocation.getArgument(0));
+
+        lessonService.update(lessonId, updateLessonCommand);
+
+        verify(lessonScheduleIndex).release(teacherId, previousDate);
+        verify(lessonScheduleIndex).reserve(lesson);
     }
 
     @Test
@@ -329,6 +497,17 @@ class LessonServiceTest {
         verify(lessonRepository).deleteById(lessonId);
     }
 
+    @Test
+    void delete_ShouldReleaseLessonInScheduleIndex() {
+        when(lessonRepository.existsByIdAndDateBefore(eq(lessonId), any(LocalDateTime.class))).thenReturn(false);
+        when(lessonRepository.findById(lessonId)).thenReturn(Optional.of(lesson));
+
+        lessonService.deleteById(lessonId);
+
+        verify(lessonScheduleIndex).release(teacherId, lesson.getDate());
+        verify(lessonRepository).deleteById(lessonId);
+    }
+
     @Test
     void delete_WhenLessonAlreadyStarted_ShouldThrowLessonAlreadyStartedException() {
         when(lessonRepository.existsByIdAndDateBefore(eq(lessonId), any(LocalDateTime.class))).thenReturn(true);
@@ -0,0 +1,141 @@
+package io.github.Piotr7421.courses.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.github.Piotr7421.courses.config.CoursesProperties;
+import io.github.Piotr7421.courses.config.ReplicaRoutingDataSource;
+import io.github.Piotr7421.courses.exception.TeacherNotFoundException;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        CoursesProperties properties = new CoursesProperties();
+        properties.getSingleFlight().setEntities(Set.of("teacher"));
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight(properties, meterRegistry);
+    }
+
+    @Test
+    void execute_WhenSameKeyIsLoadedConcurrently_ShouldRunLoaderOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<String> loader = () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "teacher-1";
+        };
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("teacher", "1", loader));
+        waitUntil(() -> loads.get() == 1);
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> singleFlight.execute("teacher", "1", loader));
+        waitUntil(() -> calls("coalesced") == 1);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("teacher-1");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("teacher-1");
+        assertThat(loads).hasValue(1);
+        assertThat(calls("leader")).isEqualTo(1);
+    }
+
+    @Test
+    void execute_WhenCallerHasJustWritten_ShouldNotJoinRunningFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("teacher", "1", () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "before-write";
+        }));
+        waitUntil(() -> loads.get() == 1);
+
+        String result;
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            result = singleFlight.execute("teacher", "1", () -> {
+                loads.incrementAndGet();
+                return "after-write";
+            });
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+            release.countDown();
+        }
+
+        assertThat(result).isEqualTo("after-write");
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("before-write");
+        assertThat(loads).hasValue(2);
+        assertThat(calls("coalesced")).isZero();
+    }
+
+    @Test
+    void execute_WhenEntityIsNotEnabled_ShouldRunLoaderEveryTime() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.execute("student", "1", loads::incrementAndGet);
+        singleFlight.execute("student", "1", loads::incrementAndGet);
+
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.find("courses.singleflight.calls").counters()).isEmpty();
+    }
+
+    @Test
+    void execute_WhenLoaderFails_ShouldPropagateExceptionToFollowers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<String> loader = () -> {
+            await(release);
+            throw new TeacherNotFoundException("Teacher with id=1 not found");
+        };
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("teacher", "1", loader));
+        waitUntil(() -> calls("leader") == 1);
+        CompletableFuture<Throwable> follower = CompletableFuture.supplyAsync(() -> {
+            try {
+                singleFlight.execute("teacher", "1", loader);
+                return null;
+            } catch (RuntimeException e) {
+                return e;
+            }
+        });
+        waitUntil(() -> calls("coalesced") == 1);
+        release.countDown();
+
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isInstanceOf(TeacherNotFoundException.class);
+        assertThatExceptionOfType(Exception.class).isThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .withCauseInstanceOf(TeacherNotFoundException.class);
+        assertThat(singleFlight.execute("teacher", "1", () -> "teacher-1")).isEqualTo("teacher-1");
+    }
+
+    private double calls(String result) {
+        return meterRegistry.counter("courses.singleflight.calls", "entity", "teacher", "result", result).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.get() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.get()).isTrue();
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.Piotr7421.courses.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,9 +9,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import io.github.Piotr7421.courses.common.Cursor;
 import io.github.Piotr7421.courses.common.Language;
 import io.github.Piotr7421.courses.exception.DatabaseConstraintException;
 import io.github.Piotr7421.courses.exception.IncompatibleTeacherLanguageException;
@@ -20,10 +25,15 @@ import io.github.Piotr7421.courses.mapper.StudentMapper;
 import io.github.Piotr7421.courses.model.Student;
 import io.github.Piotr7421.courses.model.Teacher;
 import io.github.Piotr7421.courses.model.command.CreateStudentCommand;
+import io.github.Piotr7421.courses.model.command.ReassignStudentCommand;
+import io.github.Piotr7421.courses.model.command.ReassignStudentsCommand;
 import io.github.Piotr7421.courses.model.command.UpdateStudentCommand;
+import io.github.Piotr7421.courses.model.dto.PageDto;
 import io.github.Piotr7421.courses.model.dto.StudentDto;
+import io.github.Piotr7421.courses.repository.StudentReassignmentRepository;
 import io.github.Piotr7421.courses.repository.StudentRepository;
 import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.TeacherMailbox;
 import io.github.Piotr7421.courses.validator.TeacherLanguageValidator;
 
 import java.text.MessageFormat;
@@ -36,6 +46,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
@@ -54,6 +66,15 @@ class StudentServiceTest {
     @Mock
     private TeacherLanguageValidator teacherLanguageValidator;
 
+    @Mock
+    private TeacherMailbox teacherMailbox;
+
+    @Mock
+    private StudentReassignmentRepository studentReassignmentRepository;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private StudentService studentService;
 
@@ -129,23 +150,48 @@ class StudentServiceTest {
         List<StudentDto> expectedDto = students.stream()
                 .map(StudentMapper::mapToDto)
                 .toList();
-        when(studentRepository.findAll()).thenReturn(students);
+        when(studentRepository.findAllAsDto()).thenReturn(expectedDto);
 
         List<StudentDto> result = studentService.findAll();
 
         assertThat(expectedDto).isEqualTo(result);
         assertThat(result).hasSize(2);
-        verify(studentRepository).findAll();
+        verify(studentRepository).findAllAsDto();
     }
 
     @Test
     void findAll_NoStudents_ShouldReturnEmptyList() {
-        when(studentRepository.findAll()).thenReturn(Collections.emptyList());
+        when(studentRepository.findAllAsDto()).thenReturn(Collections.emptyList());
 
         List<StudentDto> result = studentService.findAll();
 
         assertThat(result).isEmpty();
-        verify(studentRepository).findAll();
+        verify(studentRepository).findAllAsDto();
+    }
+
+    @Test
+    void findPage_WhenLastPage_ShouldReturnNoCursor() {
+        when(studentRepository.findDtoPageAfter(0, Limit.of(3))).thenReturn(List.of(StudentMapper.mapToDto(student)));
+
+        PageDto<StudentDto> result = studentService.findPage(2, null);
+
+        assertThat(result.getItems()).containsExactly(StudentMapper.mapToDto(student));
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void findPage_WhenMoreRowsThanLimit_ShouldReturnCursorOfLastItem() {
+        Student nextStudent = Student.builder()
+                .id(2)
+                .teacher(teacher)
+                .build();
+        when(studentRepository.findDtoPageAfter(0, Limit.of(2)))
+                .thenReturn(List.of(StudentMapper.mapToDto(student), StudentMapper.mapToDto(nextStudent)));
+
+        PageDto<StudentDto> result = studentService.findPage(1, null);
+
+        assertThat(result.getItems()).containsExactly(StudentMapper.mapToDto(student));
+        assertThat(Cursor.decode(result.getNextCursor()).id()).isEqualTo(student.getId());
     }
 
     @Test
@@ -156,25 +202,25 @@ class StudentServiceTest {
                 .teacher(new Teacher())
                 .build();
         StudentDto expectedDto = StudentMapper.mapToDto(student);
-        when(studentRepository.findById(studentId)).thenReturn(Optional.of(student));
+        when(studentRepository.findDtoById(studentId)).thenReturn(Optional.of(expectedDto));
 
         StudentDto result = studentService.findById(studentId);
 
         assertThat(expectedDto).isEqualTo(result);
-        verify(studentRepository).findById(studentId);
+        verify(studentRepository).findDtoById(studentId);
     }
 
     @Test
     void findById_WhenStudentNotFound_ShouldThrowException() {
         int studentId = 1;
         String expectedExceptionMsg = MessageFormat.format("Student with id={0} not found", studentId);
-        when(studentRepository.findById(studentId)).thenReturn(Optional.empty());
+        when(studentRepository.findDtoById(studentId)).thenReturn(Optional.empty());
 
         assertThatExceptionOfType(StudentNotFoundException.class)
                 .isThrownBy(() -> studentService.findById(studentId))
                 .withMessage(expectedExceptionMsg);
 
-        verify(studentRepository).findById(studentId);
+        verify(studentRepository).findDtoById(studentId);
     }
 
     @Test
@@ -385,6 +431,25 @@ class StudentServiceTest {
         verify(studentRepository).saveAndFlush(student);
     }
 
+    @Test
+    void reassign_WhenTeacherLanguageIsIncompatible_ShouldNotUpdateAnyStudent() {
+        ReassignStudentsCommand command = ReassignStudentsCommand.builder()
+                .teacherId(newTeacher.getId())
+                .students(List.of(ReassignStudentCommand.builder()
+                        .id(student.getId())
+                        .version(0)
+                        .build()))
+                .build();
+        when(teacherRepository.findWithPessimisticLockingById(newTeacher.getId())).thenReturn(Optional.of(newTeacher));
+        doThrow(new IncompatibleTeacherLanguageException("Incompatible teacher language"))
+                .when(teacherLanguageValidator).validateTeacherLanguages(newTeacher, List.of(student.getId()));
+
+        assertThatExceptionOfType(IncompatibleTeacherLanguageException.class)
+                .isThrownBy(() -> studentService.reassign(command));
+
+        verify(studentReassignmentRepository, never()).reassign(anyInt(), anyList());
+    }
+
     @Test
     void delete_ShouldDeleteStudent() {
         int studentId = 1;
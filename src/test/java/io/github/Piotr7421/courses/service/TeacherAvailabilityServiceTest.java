@@ -0,0 +1,163 @@
+package io.github.Piotr7421.courses.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import io.github.Piotr7421.courses.common.Language;
+import io.github.Piotr7421.courses.exception.InvalidTimeWindowException;
+import io.github.Piotr7421.courses.exception.TeacherNotFoundException;
+import io.github.Piotr7421.courses.model.Teacher;
+import io.github.Piotr7421.courses.mapper.TeacherMapper;
+import io.github.Piotr7421.courses.model.converter.LanguageSetConverter;
+import io.github.Piotr7421.courses.model.dto.FreeSlotDto;
+import io.github.Piotr7421.courses.model.dto.TeacherDto;
+import io.github.Piotr7421.courses.repository.LessonRepository;
+import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.TeacherLanguageIndex;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TeacherAvailabilityServiceTest {
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private LessonRepository lessonRepository;
+
+    @Mock
+    private TeacherLanguageIndex teacherLanguageIndex;
+
+    @InjectMocks
+    private TeacherAvailabilityService teacherAvailabilityService;
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    @BeforeEach
+    void setUp() {
+        from = LocalDateTime.of(2030, 1, 15, 8, 0);
+        to = LocalDateTime.of(2030, 1, 15, 16, 0);
+    }
+
+    @Test
+    void findFreeSlots_ShouldQueryLessonsOverlappingWindowOnce() {
+        when(teacherRepository.findById(1)).thenReturn(Optional.of(Teacher.builder().id(1).build()));
+        when(lessonRepository.findAllDatesByTeacherIdBetween(1, from.minusHours(1), to))
+                .thenReturn(List.of(from.minusMinutes(30), from.plusHours(3)));
+
+        List<FreeSlotDto> result = teacherAvailabilityService.findFreeSlots(1, from, to, 60);
+
+        assertThat(result).containsExactly(
+                new FreeSlotDto(from.plusMinutes(30), from.plusHours(3)),
+                new FreeSlotDto(from.plusHours(4), to));
+    }
+
+    @Test
+    void findFreeSlots_WhenTeacherNotFound_ShouldThrowException() {
+        when(teacherRepository.findById(1)).thenReturn(Optional.empty());
+
+        assertThatExceptionOfType(TeacherNotFoundException.class)
+                .isThrownBy(() -> teacherAvailabilityService.findFreeSlots(1, from, to, 60))
+                .withMessage("Teacher with id=1 not found");
+    }
+
+    @Test
+    void findFreeSlots_WhenWindowIsEmpty_ShouldThrowException() {
+        assertThatExceptionOfType(InvalidTimeWindowException.class)
+                .isThrownBy(() -> teacherAvailabilityService.findFreeSlots(1, to, from, 60))
+                .withMessage("Window start must be before its end");
+
+        verify(lessonRepository, never()).findAllDatesByTeacherIdBetween(anyInt(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void findAvailableTeachers_WhenIndexEnabled_ShouldAnswerFromIndexWithoutDatabase() {
+        TeacherDto first = new TeacherDto(1, "Anna", "Nowak", Set.of(Language.JAVA));
+        TeacherDto third = new TeacherDto(3, "Jan", "Kowalski", Set.of(Language.JAVA));
+        when(teacherLanguageIndex.isEnabled()).thenReturn(true);
+        when(teacherLanguageIndex.findAvailable(Language.JAVA, from)).thenReturn(List.of(first, third));
+
+        List<TeacherDto> result = teacherAvailabilityService.findAvailableTeachers(Language.JAVA, from);
+
+        assertThat(result).containsExactly(first, third);
+        verifyNoInteractions(teacherRepository);
+        verify(lessonRepository, never()).existsByTeacherAndDateAfterAndDateBefore(any(Teacher.class),
+                any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void findAvailableTeachers_WhenIndexDisabled_ShouldCheckEachTeacherInDatabase() {
+        Teacher busy = Teacher.builder().id(1).languages(Set.of(Language.JAVA)).build();
+        Teacher free = Teacher.builder().id(2).languages(Set.of(Language.JAVA)).build();
+        when(teacherLanguageIndex.isEnabled()).thenReturn(false);
+        when(teacherRepository.findAllByLanguageMasks(LanguageSetConverter.masksContaining(Language.JAVA)))
+                .thenReturn(List.of(busy, free));
+        when(lessonRepository.existsByTeacherAndDateAfterAndDateBefore(busy, from.minusHours(1), from.plusHours(1)))
+                .thenReturn(true);
+        when(lessonRepository.existsByTeacherAndDateAfterAndDateBefore(free, from.minusHours(1), from.plusHours(1)))
+                .thenReturn(false);
+
+        List<TeacherDto> result = teacherAvailabilityService.findAvailableTeachers(Language.JAVA, from);
+
+        assertThat(result).containsExactly(TeacherMapper.mapToDto(free));
+    }
+
+    @Test
+    void sweep_WhenNoLessons_ShouldReturnWholeWindow() {
+        List<FreeSlotDto> result = TeacherAvailabilityService.sweep(Collections.emptyList(), from, to, Duration.ofHours(1));
+
+        assertThat(result).containsExactly(new FreeSlotDto(from, to));
+    }
+
+    @Test
+    void sweep_ShouldSkipGapsShorterThanDuration() {
+        List<LocalDateTime> starts = List.of(from.plusMinutes(30), from.plusHours(2), from.plusMinutes(210));
+
+        List<FreeSlotDto> result = TeacherAvailabilityService.sweep(starts, from, to, Duration.ofHours(1));
+
+        assertThat(result).containsExactly(new FreeSlotDto(from.plusMinutes(270), to));
+    }
+
+    @Test
+    void sweep_WhenLessonsAreBackToBack_ShouldNotReturnZeroLengthGap() {
+        List<LocalDateTime> starts = List.of(from, from.plusHours(1));
+
+        List<FreeSlotDto> result = TeacherAvailabilityService.sweep(starts, from, to, Duration.ofMinutes(1));
+
+        assertThat(result).containsExactly(new FreeSlotDto(from.plusHours(2), to));
+    }
+
+    @Test
+    void sweep_WhenWholeTermIsBooked_ShouldAnswerInOnePass() {
+        LocalDateTime termEnd = from.plusDays(120);
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (LocalDateTime start = from; start.isBefore(termEnd); start = start.plusMinutes(90)) {
+            starts.add(start);
+        }
+
+        List<FreeSlotDto> result = TeacherAvailabilityService.sweep(starts, from, termEnd, Duration.ofMinutes(30));
+
+        assertThat(result).hasSize(starts.size());
+        assertThat(result.get(0)).isEqualTo(new FreeSlotDto(from.plusHours(1), from.plusMinutes(90)));
+    }
+}
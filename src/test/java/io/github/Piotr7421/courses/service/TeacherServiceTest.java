@@ -8,8 +8,10 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import io.github.Piotr7421.courses.common.Cursor;
 import io.github.Piotr7421.courses.common.Language;
 import io.github.Piotr7421.courses.exception.DatabaseConstraintException;
 import io.github.Piotr7421.courses.exception.IncompatibleTeacherLanguageException;
@@ -21,8 +23,13 @@ import io.github.Piotr7421.courses.model.Student;
 import io.github.Piotr7421.courses.model.Teacher;
 import io.github.Piotr7421.courses.model.command.CreateTeacherCommand;
 import io.github.Piotr7421.courses.model.command.UpdateTeacherCommand;
+import io.github.Piotr7421.courses.model.converter.LanguageSetConverter;
+import io.github.Piotr7421.courses.model.dto.PageDto;
 import io.github.Piotr7421.courses.model.dto.TeacherDto;
+import io.github.Piotr7421.courses.model.projection.Versioned;
 import io.github.Piotr7421.courses.repository.TeacherRepository;
+import io.github.Piotr7421.courses.schedule.LessonScheduleIndex;
+import io.github.Piotr7421.courses.schedule.TeacherLanguageIndex;
 import io.github.Piotr7421.courses.validator.TeacherLanguageValidator;
 
 import java.text.MessageFormat;
@@ -47,6 +54,12 @@ class TeacherServiceTest {
     @Mock
     private TeacherLanguageValidator validator;
 
+    @Mock
+    private TeacherLanguageIndex teacherLanguageIndex;
+
+    @Mock
+    private LessonScheduleIndex lessonScheduleIndex;
+
     @InjectMocks
     private TeacherService teacherService;
 
@@ -97,13 +110,13 @@ class TeacherServiceTest {
         List<TeacherDto> teachersDto = teachers.stream()
                 .map(TeacherMapper::mapToDto)
                 .toList();
-        when(teacherRepository.findAll()).thenReturn(teachers);
+        when(teacherRepository.findAllAsDto()).thenReturn(teachersDto);
 
         List<TeacherDto> result = teacherService.findAll();
 
         assertEquals(teachersDto, result);
         assertEquals(2, teachersDto.size());
-        verify(teacherRepository).findAll();
+        verify(teacherRepository).findAllAsDto();
     }
 
     @Test
@@ -112,13 +125,48 @@ class TeacherServiceTest {
         List<TeacherDto> teachersDto = teachers.stream()
                 .map(TeacherMapper::mapToDto)
                 .toList();
-        when(teacherRepository.findAll()).thenReturn(teachers);
+        when(teacherRepository.findAllAsDto()).thenReturn(teachersDto);
 
         List<TeacherDto> result = teacherService.findAll();
 
         assertEquals(teachersDto, result);
         assertEquals(0, teachersDto.size());
-        verify(teacherRepository).findAll();
+        verify(teacherRepository).findAllAsDto();
+    }
+
+    @Test
+    void findPage_WhenMoreRowsThanLimit_ShouldReturnNextCursor() {
+        Teacher secondTeacher = Teacher.builder()
+                .id(2)
+                .build();
+        when(teacherRepository.findDtoPageAfter(0, Limit.of(2)))
+                .thenReturn(List.of(TeacherMapper.mapToDto(teacher), TeacherMapper.mapToDto(secondTeacher)));
+
+        PageDto<TeacherDto> result = teacherService.findPage(1, null);
+
+        assertEquals(List.of(TeacherMapper.mapToDto(teacher)), result.getItems());
+        assertEquals(Cursor.of(teacherId).encode(), result.getNextCursor());
+    }
+
+    @Test
+    void findPage_WhenAfterCursorGiven_ShouldContinueAfterId() {
+        when(teacherRepository.findDtoPageAfter(teacherId, Limit.of(11)))
+                .thenReturn(List.of());
+
+        PageDto<TeacherDto> result = teacherService.findPage(10, Cursor.of(teacherId).encode());
+
+        assertEquals(0, result.getItems().size());
+        assertEquals(null, result.getNextCursor());
+    }
+
+    @Test
+    void findAllByLanguage_ShouldQueryEveryMaskContainingLanguage() {
+        when(teacherRepository.findAllByLanguageMasks(LanguageSetConverter.masksContaining(Language.JAVA)))
+                .thenReturn(List.of(teacher));
+
+        List<TeacherDto> result = teacherService.findAllByLanguage(Language.JAVA);
+
+        assertEquals(List.of(TeacherMapper.mapToDto(teacher)), result);
     }
 
     @Test
@@ -145,6 +193,17 @@ class TeacherServiceTest {
         verify(teacherRepository).findById(teacherId);
     }
 
+    @Test
+    void findVersionedById_ShouldReturnTeacherDtoWithEntityVersion() {
+        teacher.setVersion(3);
+        when(teacherRepository.findById(teacherId)).thenReturn(Optional.of(teacher));
+
+        Versioned<TeacherDto> result = teacherService.findVersionedById(teacherId);
+
+        assertEquals(TeacherMapper.mapToDto(teacher), result.body());
+        assertEquals("\"" + teacher.getId() + "-3\"", result.etag());
+    }
+
     @Test
     void create_HappyPath_ShouldCreateTeacher() {
 
@@ -160,6 +219,8 @@ class TeacherServiceTest {
         assertEquals(captorValue.getFirstName(), createTeacherCommand.getFirstName());
         assertEquals(captorValue.getLastName(), createTeacherCommand.getLastName());
         assertEquals(captorValue.getLanguages(), createTeacherCommand.getLanguages());
+        verify(teacherLanguageIndex).put(teacherDto);
+        verify(lessonScheduleIndex).register(teacherId);
     }
 
     @Test
@@ -188,6 +249,7 @@ class TeacherServiceTest {
         verify(teacherRepository).findWithLockingById(teacherId);
         verify(validator).validateTeacherLanguages(updatedTeacher);
         verify(teacherRepository).saveAndFlush(updatedTeacher);
+        verify(teacherLanguageIndex).put(expected);
     }
 
     @Test
@@ -247,6 +309,7 @@ class TeacherServiceTest {
 
         verify(teacherRepository).findByIdWithStudents(teacherId);
         verify(teacherRepository).deleteById(teacherId);
+        verify(teacherLanguageIndex).remove(teacherId);
     }
 
     @Test
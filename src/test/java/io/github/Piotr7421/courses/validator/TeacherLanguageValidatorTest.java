@@ -13,11 +13,17 @@ import io.github.Piotr7421.courses.model.Teacher;
 import io.github.Piotr7421.courses.repository.StudentRepository;
 
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -76,42 +82,44 @@ class TeacherLanguageValidatorTest {
     @Test
     void validateTeacherLanguages_WhenTeacherLanguagesContainStudentsOnes_ShouldNotThrowException() {
         teacher.setLanguages(Set.of(Language.JAVA, Language.PYTHON, Language.JS));
-        student1.setLanguage(Language.JAVA);
-        student2.setLanguage(Language.PYTHON);
-        Set<Student> students = Set.of(student1, student2);
-        when(studentRepository.findAllByTeacherId(teacher.getId())).thenReturn(students);
+        when(studentRepository.findDistinctLanguagesByTeacherIdAndLanguageIn(teacher.getId(),
+                EnumSet.of(Language.C, Language.CPP, Language.JS_NODE, Language.COBOL)))
+                .thenReturn(Collections.emptyList());
 
         assertThatCode(() -> validator.validateTeacherLanguages(teacher))
                 .doesNotThrowAnyException();
 
-        verify(studentRepository).findAllByTeacherId(teacher.getId());
+        verify(studentRepository, never()).findAllByTeacherId(teacher.getId());
     }
 
     @Test
     void validateTeacherLanguages_WhenTeacherLanguagesDoNotContainStudentsOnes_ShouldThrowException() {
         teacher.setLanguages(Set.of(Language.JAVA, Language.PYTHON));
-        student1.setLanguage(Language.JAVA);
-        student2.setLanguage(Language.C);
-        Set<Student> students = Set.of(student1, student2);
-        when(studentRepository.findAllByTeacherId(teacher.getId())).thenReturn(students);
+        when(studentRepository.findDistinctLanguagesByTeacherIdAndLanguageIn(eq(teacher.getId()), anyCollection()))
+                .thenReturn(List.of(Language.COBOL, Language.C));
 
         assertThatExceptionOfType(IncompatibleTeacherLanguageException.class)
                 .isThrownBy(() -> validator.validateTeacherLanguages(teacher))
-                .withMessageContaining("Incompatible teacher language")
-                .withMessageContaining("teacher id=1")
-                .withMessageContaining("language=C");
-
-        verify(studentRepository).findAllByTeacherId(teacher.getId());
+                .withMessage("Incompatible teacher language, teacher id=1, language=C, COBOL");
     }
 
     @Test
     void validateTeacherLanguages_WhenNoStudents_ShouldNotThrowException() {
         teacher.setLanguages(Set.of(Language.JAVA));
-        when(studentRepository.findAllByTeacherId(teacher.getId())).thenReturn(Collections.emptySet());
+        when(studentRepository.findDistinctLanguagesByTeacherIdAndLanguageIn(eq(teacher.getId()), anyCollection()))
+                .thenReturn(Collections.emptyList());
+
+        assertThatCode(() -> validator.validateTeacherLanguages(teacher))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void validateTeacherLanguages_WhenTeacherSpeaksEveryLanguage_ShouldNotQueryStudents() {
+        teacher.setLanguages(EnumSet.allOf(Language.class));
 
         assertThatCode(() -> validator.validateTeacherLanguages(teacher))
                 .doesNotThrowAnyException();
 
-        verify(studentRepository).findAllByTeacherId(teacher.getId());
+        verifyNoInteractions(studentRepository);
     }
-}
\ No newline at end of file
+}